@@ -0,0 +1,356 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Dense all-pairs shortest path distances, for feeding sparse graphs into the TSP solvers that want a complete
+ * metric graph.
+ *
+ * <p>
+ * The graph is frozen once into a CsrGraph over positions in verticesOrdered, then Dijkstra's is run from
+ * every source on a fork-join pool. Each worker reuses one IndexedMinHeap for all of its sources and writes its
+ * distances straight into its own rows of a flat row-major matrix, so the runs share nothing that needs locking.
+ *
+ * <p>
+ * For dense graphs there is also a cache-blocked Floyd-Warshall over the same flat matrix, which keeps next hops so
+ * the paths themselves can be rebuilt. Which of the two distances(g) uses is picked from the density of the graph.
+ */
+public class AllPairsShortestPaths{
+
+    /**
+     * How many sources a task runs by itself instead of splitting in two.
+     */
+    public static int sourcesPerTask = 16;
+
+    /**
+     * Side length of the square tiles Floyd-Warshall works on. 64x64 doubles is 32KB, so the three tiles an update
+     * reads fit in L2.
+     */
+    public static int tileSize = 64;
+
+    /**
+     * Floyd-Warshall is used by distances(g) once each vertex has edges to at least this fraction of the others.
+     * Below that, running Dijkstra's from each of the V sources at O(E log V) a run is faster than one O(V^3)
+     * Floyd-Warshall pass. The crossover was measured with GraphBenchmarks.allPairs.
+     */
+    public static double floydWarshallDensity = 0.6;
+
+    /**
+     * The ways to fill in the matrix.
+     * DIJKSTRA runs Dijkstra's from every source, O(V E log V), and suits sparse graphs.
+     * FLOYD_WARSHALL relaxes every pair through every vertex, O(V^3), and suits dense graphs.
+     */
+    public enum Method{
+        DIJKSTRA,
+        FLOYD_WARSHALL
+    }
+
+    private final CsrGraph<?, ?> graph;
+    private final double[] matrix;
+    private final int n;
+
+    private AllPairsShortestPaths(CsrGraph<?, ?> graph){
+        this.graph = graph;
+        n = graph.n;
+        if((long) n * n > Integer.MAX_VALUE - 8){
+            throw new IllegalArgumentException("A distance matrix for " + n + " vertices does not fit in one array");
+        }
+        matrix = new double[n * n];
+    }
+
+    private class SourceTask extends RecursiveAction{
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        SourceTask(int from, int to){
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from > sourcesPerTask){
+                int mid = (from + to) >>> 1;
+                invokeAll(new SourceTask(from, mid), new SourceTask(mid, to));
+                return;
+            }
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for(int source = from; source < to; source++){
+                dijkstra(source, queue);
+            }
+        }
+    }
+
+    //Dijkstra's from source into row source of the matrix
+    private void dijkstra(int source, IndexedMinHeap queue){
+        int row = source * n;
+        for(int i = 0; i < n; i++) matrix[row + i] = Double.POSITIVE_INFINITY;
+        matrix[row + source] = 0.0;
+        queue.insert(source, 0.0);
+        while(!queue.isEmpty()){
+            int cur = queue.poll();
+            double curDist = matrix[row + cur];
+            for(int slot = graph.offset(cur); slot < graph.offset(cur + 1); slot++){
+                int next = graph.target(slot);
+                double newDist = curDist + graph.weight(slot);
+                if(newDist < matrix[row + next]){
+                    matrix[row + next] = newDist;
+                    queue.offer(next, newDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @return a flat row-major matrix where [i*n + j] is the shortest path distance from getVertex(i) to
+     *         getVertex(j), or infinity if there is no path
+     */
+    public static <V, E> double[] distances(Graph<V, E> g){
+        if(choose(g) == Method.FLOYD_WARSHALL) return floydWarshallDistances(g, ForkJoinPool.commonPool());
+        return distances(g, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @return the method distances(g) will use for g
+     */
+    public static <V, E> Method choose(Graph<V, E> g){
+        int n = g.verticesOrdered.size();
+        if(n < 2) return Method.DIJKSTRA;
+        double edgesPerVertex = 2.0 * g.edges.size() / n;
+        return edgesPerVertex >= floydWarshallDensity * (n - 1) ? Method.FLOYD_WARSHALL : Method.DIJKSTRA;
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param pool the pool to run the searches on
+     * @return a flat row-major matrix where [i*n + j] is the shortest path distance from getVertex(i) to
+     *         getVertex(j), or infinity if there is no path
+     * @throws IllegalArgumentException if the n*n matrix would be too big for one array
+     */
+    public static <V, E> double[] distances(Graph<V, E> g, ForkJoinPool pool){
+        return distances(g.freeze(), pool);
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param pool the pool to run the searches on
+     * @return a flat row-major matrix where [i*n + j] is the shortest path distance from vertex i to vertex j, or
+     *         infinity if there is no path
+     * @throws IllegalArgumentException if the n*n matrix would be too big for one array
+     */
+    public static <V, E> double[] distances(CsrGraph<V, E> g, ForkJoinPool pool){
+        AllPairsShortestPaths all = new AllPairsShortestPaths(g);
+        if(all.n > 0) pool.invoke(all.new SourceTask(0, all.n));
+        return all.matrix;
+    }
+
+    /**
+     * The metric closure of g: a complete graph on copies of its vertices where each edge weighs the shortest path
+     * distance between its ends in g. Lets the TSP solvers, which need an edge between every pair of vertices, run on
+     * sparse graphs. Vertices keep their positions, so getVertex(i) of the closure is the copy of g.getVertex(i).
+     *
+     * @param <V>
+     * @param <E>
+     * @param g an undirected graph
+     * @return the metric closure of g, without edges between vertices that can't reach each other
+     */
+    public static <V, E> Graph<V, E> metricClosure(Graph<V, E> g){
+        int n = g.verticesOrdered.size();
+        double[] matrix = distances(g);
+        Graph<V, E> closure = new Graph<V, E>();
+        for(Graph.Vertex<V, E> vertex : g.verticesOrdered){
+            closure.addVertex(vertex.data);
+        }
+        for(int i = 0; i < n; i++){
+            for(int j = i + 1; j < n; j++){
+                if(matrix[i * n + j] != Double.POSITIVE_INFINITY) closure.addEdge(i, j, matrix[i * n + j]);
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * All-pairs distances together with the next hop of every shortest path.
+     */
+    public static class Paths{
+        /**
+         * The number of vertices.
+         */
+        public final int n;
+        /**
+         * Flat row-major matrix where [i*n + j] is the shortest path distance from getVertex(i) to getVertex(j), or
+         * infinity if there is no path.
+         */
+        public final double[] distances;
+        //[i*n + j] is the position of the vertex after i on a shortest path from i to j, or -1 if there is none
+        private final int[] next;
+
+        Paths(int n, double[] distances, int[] next){
+            this.n = n;
+            this.distances = distances;
+            this.next = next;
+        }
+
+        /**
+         * @param i position of the source
+         * @param j position of the target
+         * @return the shortest path distance from getVertex(i) to getVertex(j)
+         */
+        public double distance(int i, int j){
+            return distances[i * n + j];
+        }
+
+        /**
+         * @param i position of the source
+         * @param j position of the target
+         * @return the positions of the vertices on a shortest path from getVertex(i) to getVertex(j), both ends
+         *         included, or null if there is no path
+         */
+        public int[] path(int i, int j){
+            if(next[i * n + j] == -1) return null;
+            int[] path = new int[8];
+            int length = 0;
+            path[length++] = i;
+            while(i != j){
+                i = next[i * n + j];
+                if(length == path.length) path = Arrays.copyOf(path, length * 2);
+                path[length++] = i;
+            }
+            return Arrays.copyOf(path, length);
+        }
+    }
+
+    /**
+     * Cache-blocked Floyd-Warshall. The matrix is cut into tileSize x tileSize tiles, and for each block of
+     * intermediate vertices kb the diagonal tile is relaxed first, then the other tiles in row and column kb, which
+     * only read the diagonal tile, then every remaining tile, which only reads its row and column tiles. The last two
+     * phases run their tiles in parallel, one task per tile row. Assumes there are no negative cycles.
+     *
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param pool the pool to run the tiles on
+     * @return the distance and a shortest path between every pair of vertices
+     * @throws IllegalArgumentException if the n*n matrix would be too big for one array
+     */
+    public static <V, E> Paths floydWarshall(Graph<V, E> g, ForkJoinPool pool){
+        int n = g.verticesOrdered.size();
+        double[] dist = seed(g);
+        //each edge is its own next hop
+        int[] next = new int[n * n];
+        for(int i = 0; i < n; i++){
+            for(int j = 0; j < n; j++){
+                next[i * n + j] = i == j ? i : dist[i * n + j] == Double.POSITIVE_INFINITY ? -1 : j;
+            }
+        }
+        relaxAll(dist, next, n, pool);
+        return new Paths(n, dist, next);
+    }
+
+    /**
+     * The same cache-blocked Floyd-Warshall without the next hops, for when only the distances are wanted. It
+     * skips the n*n table of next hops and the writes to it.
+     *
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param pool the pool to run the tiles on
+     * @return a flat row-major matrix where [i*n + j] is the shortest path distance from getVertex(i) to
+     *         getVertex(j), or infinity if there is no path
+     * @throws IllegalArgumentException if the n*n matrix would be too big for one array
+     */
+    public static <V, E> double[] floydWarshallDistances(Graph<V, E> g, ForkJoinPool pool){
+        int n = g.verticesOrdered.size();
+        double[] dist = seed(g);
+        relaxAll(dist, null, n, pool);
+        return dist;
+    }
+
+    //The edge weights as a flat matrix, with every vertex 0 from itself
+    private static <V, E> double[] seed(Graph<V, E> g){
+        int n = g.verticesOrdered.size();
+        if((long) n * n > Integer.MAX_VALUE - 8){
+            throw new IllegalArgumentException("A distance matrix for " + n + " vertices does not fit in one array");
+        }
+        double[] dist = GraphAlgorithms.weightMatrix(g.verticesOrdered);
+        for(int i = 0; i < n; i++){
+            if(dist[i * n + i] > 0.0) dist[i * n + i] = 0.0;
+        }
+        return dist;
+    }
+
+    //The tiled passes over every block of intermediate vertices. next may be null when only distances are kept
+    private static void relaxAll(double[] dist, int[] next, int n, ForkJoinPool pool){
+        int tile = Math.max(1, tileSize);
+        int tiles = (n + tile - 1) / tile;
+        for(int kb = 0; kb < tiles; kb++){
+            int k = kb;
+            relaxTile(dist, next, n, tile, k, k, k);
+            pool.invoke(new RangeTask(0, tiles, 1, t -> {
+                if(t == k) return;
+                relaxTile(dist, next, n, tile, k, t, k);
+                relaxTile(dist, next, n, tile, t, k, k);
+            }));
+            pool.invoke(new RangeTask(0, tiles, 1, ib -> {
+                if(ib == k) return;
+                for(int jb = 0; jb < tiles; jb++){
+                    if(jb != k) relaxTile(dist, next, n, tile, ib, jb, k);
+                }
+            }));
+        }
+    }
+
+    //Relaxes every pair in tile (ib, jb) through every intermediate vertex in block kb
+    private static void relaxTile(double[] dist, int[] next, int n, int tile, int ib, int jb, int kb){
+        int iEnd = Math.min(n, (ib + 1) * tile);
+        int jStart = jb * tile;
+        int jEnd = Math.min(n, jStart + tile);
+        int kEnd = Math.min(n, (kb + 1) * tile);
+        if(next == null){
+            for(int k = kb * tile; k < kEnd; k++){
+                int kRow = k * n;
+                for(int i = ib * tile; i < iEnd; i++){
+                    int iRow = i * n;
+                    double ik = dist[iRow + k];
+                    if(ik == Double.POSITIVE_INFINITY) continue;
+                    for(int j = jStart; j < jEnd; j++){
+                        double through = ik + dist[kRow + j];
+                        if(through < dist[iRow + j]) dist[iRow + j] = through;
+                    }
+                }
+            }
+            return;
+        }
+        for(int k = kb * tile; k < kEnd; k++){
+            int kRow = k * n;
+            for(int i = ib * tile; i < iEnd; i++){
+                int iRow = i * n;
+                double ik = dist[iRow + k];
+                if(ik == Double.POSITIVE_INFINITY) continue;
+                int hop = next[iRow + k];
+                for(int j = jStart; j < jEnd; j++){
+                    double through = ik + dist[kRow + j];
+                    if(through < dist[iRow + j]){
+                        dist[iRow + j] = through;
+                        next[iRow + j] = hop;
+                    }
+                }
+            }
+        }
+    }
+}
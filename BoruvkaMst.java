@@ -0,0 +1,181 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Boruvka's minimal spanning tree on a fork-join pool, for graphs with so many edges that the sequential Prim's and
+ * Kruskal's in GraphAlgorithms become the slow stage of tspApprox.
+ *
+ * <p>
+ * The graph is frozen once into a CsrGraph. Each round every component finds its lightest edge to another
+ * component, with the vertices split into ranges scanned in parallel, then every component is joined across its
+ * edge through a lock-free union-find. Each round at least halves the number of components, so there are at most
+ * log V rounds of O(E) parallel work. Ties between equal weights are broken by the endpoints' ids, so the edges
+ * picked in a round can never form a cycle.
+ */
+public class BoruvkaMst{
+
+    /**
+     * How many vertices a task scans by itself instead of splitting in two.
+     */
+    public static int verticesPerTask = 4096;
+
+    private final CsrGraph<?, ?> graph;
+    private final ConcurrentDisjointSets sets;
+    //the source of each slot, so an edge can be compared without searching offsets
+    private final int[] sources;
+    //the root of each vertex's component as of the start of the round
+    private final int[] component;
+    //the slot of the lightest edge leaving each component found so far this round by root, or -1
+    private final AtomicIntegerArray cheapest;
+    //the slot each root was joined across this round, or -1
+    private final int[] joined;
+
+    private BoruvkaMst(CsrGraph<?, ?> graph){
+        this.graph = graph;
+        int n = graph.n;
+        sets = new ConcurrentDisjointSets(n);
+        sources = new int[graph.offset(graph.n)];
+        for(int u = 0; u < n; u++){
+            for(int slot = graph.offset(u); slot < graph.offset(u + 1); slot++) sources[slot] = u;
+        }
+        component = new int[n];
+        cheapest = new AtomicIntegerArray(n);
+        joined = new int[n];
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g an undirected graph
+     * @return the minimal spanning tree of the graph, or a spanning forest if it is not connected, in the form of a
+     *         collection of edges
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> mst(Graph<V, E> g){
+        return mst(g.freeze(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g an undirected graph
+     * @param pool the pool to run the rounds on
+     * @return the minimal spanning tree of the graph, or a spanning forest if it is not connected, in the form of a
+     *         collection of edges
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> mst(Graph<V, E> g, ForkJoinPool pool){
+        return mst(g.freeze(), pool);
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g an undirected graph
+     * @param pool the pool to run the rounds on
+     * @return the minimal spanning tree of the graph, or a spanning forest if it is not connected, in the form of a
+     *         collection of edges
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> mst(CsrGraph<V, E> g, ForkJoinPool pool){
+        BoruvkaMst search = new BoruvkaMst(g);
+        Collection<Graph.Edge<V, E>> mst = new ArrayList<Graph.Edge<V, E>>(Math.max(g.n - 1, 0));
+        boolean merged = true;
+        while(merged && mst.size() < g.n - 1){
+            pool.invoke(new RangeTask(0, g.n, verticesPerTask, search::label));
+            pool.invoke(new RangeTask(0, g.n, verticesPerTask, search::scan));
+            pool.invoke(new RangeTask(0, g.n, verticesPerTask, search::join));
+            merged = false;
+            for(int root = 0; root < g.n; root++){
+                if(search.joined[root] != -1){
+                    mst.add(g.getEdge(search.joined[root]));
+                    merged = true;
+                }
+            }
+        }
+        return mst;
+    }
+
+    //Starts a round for u: notes its component and clears the component's lightest edge if u is its root
+    private void label(int u){
+        component[u] = sets.find(u);
+        cheapest.set(u, -1);
+        joined[u] = -1;
+    }
+
+    //Offers the lightest edge from u out of its component to the component's root
+    private void scan(int u){
+        int root = component[u];
+        int best = -1;
+        for(int slot = graph.offset(u); slot < graph.offset(u + 1); slot++){
+            if(component[graph.target(slot)] != root && (best == -1 || lighter(slot, best))) best = slot;
+        }
+        if(best == -1) return;
+        //one compare and set per vertex rather than per edge keeps the roots of big components from being fought over
+        int current = cheapest.get(root);
+        while((current == -1 || lighter(best, current)) && !cheapest.compareAndSet(root, current, best)){
+            current = cheapest.get(root);
+        }
+    }
+
+    //Joins root's component across its lightest edge. When two components picked the same edge only one join succeeds
+    private void join(int root){
+        int slot = component[root] == root ? cheapest.get(root) : -1;
+        if(slot != -1 && sets.union(sources[slot], graph.target(slot))) joined[root] = slot;
+    }
+
+    //Whether the edge in slot a comes before the one in slot b, by weight and then by the ids of their endpoints
+    private boolean lighter(int a, int b){
+        double wa = graph.weight(a);
+        double wb = graph.weight(b);
+        if(wa != wb) return wa < wb;
+        int lowA = Math.min(sources[a], graph.target(a));
+        int lowB = Math.min(sources[b], graph.target(b));
+        if(lowA != lowB) return lowA < lowB;
+        return Math.max(sources[a], graph.target(a)) < Math.max(sources[b], graph.target(b));
+    }
+
+    /**
+     * A union-find that many threads can join and look up at once. Roots are always linked under the smaller of the
+     * two, so links only ever point to smaller ids and a race can't make a cycle; a link that loses a race to
+     * another thread is simply retried from the new roots.
+     */
+    private static class ConcurrentDisjointSets{
+        private final AtomicIntegerArray parent;
+
+        ConcurrentDisjointSets(int n){
+            parent = new AtomicIntegerArray(n);
+            for(int i = 0; i < n; i++) parent.set(i, i);
+        }
+
+        //the root of item's set, pointing each item on the way at its grandparent
+        int find(int item){
+            while(true){
+                int up = parent.get(item);
+                if(up == item) return item;
+                int grand = parent.get(up);
+                //harmless if it fails, another thread already moved item up
+                if(up != grand) parent.compareAndSet(item, up, grand);
+                item = grand;
+            }
+        }
+
+        //whether a and b were in different sets, joining them if so
+        boolean union(int a, int b){
+            while(true){
+                a = find(a);
+                b = find(b);
+                if(a == b) return false;
+                if(a < b){
+                    int swap = a;
+                    a = b;
+                    b = swap;
+                }
+                if(parent.compareAndSet(a, a, b)) return true;
+            }
+        }
+    }
+}
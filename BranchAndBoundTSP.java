@@ -0,0 +1,456 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Depth-first branch and bound for the exact TSP.
+ *
+ * <p>
+ * Every partial path from the source is bounded below by its own cost, plus a minimal spanning tree over the
+ * unvisited vertices, plus the cheapest edges joining that tree to the two ends of the path. A path is pruned as
+ * soon as that bound reaches the best tour found so far. The weights are first tightened with Held-Karp
+ * Lagrangian penalties found by subgradient optimization on 1-trees at the root, which raises every bound without
+ * changing which tour is cheapest.
+ */
+public class BranchAndBoundTSP{
+
+    /**
+     * How many search nodes are explored between progress reports.
+     */
+    public static long reportInterval = 100000;
+
+    /**
+     * The progress of a branch and bound solve.
+     */
+    public static class Stats{
+        /**
+         * Partial paths visited so far.
+         */
+        public long nodesExplored;
+        /**
+         * Partial paths cut off by their lower bound so far.
+         */
+        public long nodesPruned;
+        /**
+         * Cost of the best tour found so far, or infinity if none has been found.
+         */
+        public double bestCost = Double.POSITIVE_INFINITY;
+        /**
+         * Proven lower bound on the cost of any tour. It starts at the root's 1-tree bound and is raised at each
+         * report to the smallest bound among the subtrees still open, meeting bestCost when the search ends.
+         */
+        public double lowerBound;
+
+        /**
+         * @return how far the best tour might still be from optimal, as a fraction of its cost
+         */
+        public double gap(){
+            if(bestCost == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+            if(bestCost == 0) return 0;
+            return Math.max(0, (bestCost - lowerBound) / bestCost);
+        }
+
+        public String toString(){
+            return "explored " + nodesExplored + ", pruned " + nodesPruned + ", best " + bestCost
+                + ", bound " + lowerBound + ", gap " + gap();
+        }
+    }
+
+    private final int n;
+    //real weights and Lagrangian-adjusted weights, both flat row-major with the source at index 0
+    private final double[] dist;
+    private final double[] adjusted;
+    private double penaltySum;
+
+    private final Stats stats = new Stats();
+    private final Consumer<Stats> progress;
+
+    private final int[] path;
+    private int[] bestPath;
+    //candidates[depth] holds the childCount[depth] unvisited vertices ordered nearest-first from the end of the path
+    //at that depth, childBounds[depth] the lower bound of the path through each of them, and explored[depth] which
+    //one is being searched, so the ones after it are the open subtrees at that depth
+    private final int[][] candidates;
+    private final int[] childCount;
+    private final double[][] childBounds;
+    private final int[] explored;
+    //scratch space for the spanning tree bound
+    private final int[] remaining;
+    private final double[] key;
+
+    private BranchAndBoundTSP(double[] dist, int n, Consumer<Stats> progress){
+        this.n = n;
+        this.dist = dist;
+        this.adjusted = dist.clone();
+        this.progress = progress;
+        path = new int[n];
+        candidates = new int[n][n];
+        childCount = new int[n];
+        childBounds = new double[n][n];
+        explored = new int[n];
+        remaining = new int[n];
+        key = new double[n];
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param progress called with the running stats every reportInterval nodes and once at the end; may be null
+     * @return the smallest/cheapest Ham Cycle in the form of an ordered list of edges, or null if there is none
+     * @throws IllegalArgumentException if the graph has more than 64 vertices
+     */
+    public static <V, E> List<Graph.Edge<V, E>> minTSP(Graph<V, E> g, Graph.Vertex<V, E> source, Consumer<Stats> progress){
+        int n = g.verticesOrdered.size();
+        if(n < 2) return null;
+        checkSize(n);
+
+        List<Graph.Vertex<V, E>> order = new ArrayList<>(n);
+        order.add(source);
+        for(Graph.Vertex<V, E> vertex : g.verticesOrdered){
+            if(vertex != source) order.add(vertex);
+        }
+        if(order.size() != n) throw new IllegalArgumentException("source is not a vertex of g");
+
+        int[] path = order(GraphAlgorithms.weightMatrix(order), n, progress);
+        if(path == null) return null;
+
+        List<Graph.Edge<V, E>> cycle = new ArrayList<Graph.Edge<V, E>>(n);
+        for(int i = 0; i < n; i++){
+            cycle.add(order.get(path[i]).getEdgeTo(order.get(path[(i + 1) % n])));
+        }
+        return cycle;
+    }
+
+    /**
+     * @param dist flat row-major weight matrix with the source at index 0 and infinity where there is no edge
+     * @param n
+     * @param progress called with the running stats every reportInterval nodes and once at the end; may be null
+     * @return the positions of the cheapest cycle in order starting at the source, or null if there is none
+     * @throws IllegalArgumentException if n is more than 64
+     */
+    static int[] order(double[] dist, int n, Consumer<Stats> progress){
+        checkSize(n);
+        BranchAndBoundTSP solver = new BranchAndBoundTSP(dist, n, progress);
+        solver.solve();
+        return solver.bestPath;
+    }
+
+    //The visited vertices are kept in a long, one bit each
+    private static void checkSize(int n){
+        if(n > 64) throw new IllegalArgumentException("Branch and bound supports at most 64 vertices, got " + n);
+    }
+
+    private void solve(){
+        nearestNeighborTour();
+        stats.lowerBound = computePenalties();
+        path[0] = 0;
+        search(1, 1L, 0.0, 0.0, Math.max(stats.lowerBound, completionBound(0, 1L) - 2 * penaltySum));
+        //once the search finishes the best tour is proven optimal
+        if(stats.bestCost < Double.POSITIVE_INFINITY) stats.lowerBound = stats.bestCost;
+        if(progress != null) progress.accept(stats);
+    }
+
+    //Greedy tour polished with 2-opt to start with a good upper bound, if it happens to close
+    private void nearestNeighborTour(){
+        int[] tour = new int[n];
+        long visited = 1L;
+        for(int i = 1; i < n; i++){
+            int last = tour[i - 1];
+            int next = -1;
+            for(int k = 1; k < n; k++){
+                if((visited & (1L << k)) == 0 && (next == -1 || dist[last * n + k] < dist[last * n + next])) next = k;
+            }
+            tour[i] = next;
+            visited |= 1L << next;
+        }
+
+        //reverse tour[i..j] whenever that makes the tour cheaper, until no reversal helps. forward and backward
+        //carry the cost of tour[i..j] walked each way, since the weights need not be symmetric, so each trial
+        //costs only the two edges it swaps
+        boolean improved = tourCost(tour) < Double.POSITIVE_INFINITY;
+        while(improved){
+            improved = false;
+            for(int i = 1; i < n - 1; i++){
+                double forward = 0, backward = 0;
+                for(int j = i + 1; j < n; j++){
+                    int before = tour[i - 1], first = tour[i], prev = tour[j - 1], last = tour[j], after = tour[(j + 1) % n];
+                    forward += dist[prev * n + last];
+                    backward += dist[last * n + prev];
+                    double removed = dist[before * n + first] + forward + dist[last * n + after];
+                    double added = dist[before * n + last] + backward + dist[first * n + after];
+                    if(added < removed){
+                        reverse(tour, i, j);
+                        double temp = forward;
+                        forward = backward;
+                        backward = temp;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        offerTour(tour);
+    }
+
+    //Keeps tour as the best one if it closes and is cheaper than the best so far
+    private void offerTour(int[] tour){
+        double cost = tourCost(tour);
+        if(cost < stats.bestCost){
+            stats.bestCost = cost;
+            bestPath = tour;
+        }
+    }
+
+    private double tourCost(int[] tour){
+        double cost = 0;
+        for(int i = 0; i < n; i++) cost += dist[tour[i] * n + tour[(i + 1) % n]];
+        return cost;
+    }
+
+    private static void reverse(int[] tour, int i, int j){
+        for(; i < j; i++, j--){
+            int temp = tour[i];
+            tour[i] = tour[j];
+            tour[j] = temp;
+        }
+    }
+
+    //Edge weight used by the spanning trees, which ignore direction
+    private double undirected(double[] w, int i, int j){
+        return Math.min(w[i * n + j], w[j * n + i]);
+    }
+
+    /**
+     * Subgradient optimization of the Held-Karp 1-tree bound. Each vertex gets a penalty pi that is added to
+     * every edge touching it, pushing the 1-tree towards having every degree equal to 2. Every tour's cost goes
+     * up by exactly 2 * sum(pi), so the same tours stay optimal while the bounds get tighter.
+     *
+     * @return the best lower bound on the real tour cost that was found
+     */
+    private double computePenalties(){
+        double[] pi = new double[n];
+        double[] bestPi = new double[n];
+        int[] degree = new int[n];
+        int[] parent = new int[n];
+        boolean[] inTree = new boolean[n];
+        double best = Double.NEGATIVE_INFINITY;
+        double step = 2.0;
+        int sinceImproved = 0;
+
+        for(int iteration = 0; iteration < 100 + 10 * n; iteration++){
+            //1-tree: spanning tree over every vertex but the source, plus the source's two cheapest edges
+            Arrays.fill(degree, 0);
+            Arrays.fill(inTree, false);
+            Arrays.fill(key, Double.POSITIVE_INFINITY);
+            double treeCost = 0;
+            if(n > 2){
+                key[1] = 0;
+                parent[1] = -1;
+                for(int added = 1; added < n; added++){
+                    int cur = -1;
+                    for(int k = 1; k < n; k++){
+                        if(!inTree[k] && (cur == -1 || key[k] < key[cur])) cur = k;
+                    }
+                    if(key[cur] == Double.POSITIVE_INFINITY) return best == Double.NEGATIVE_INFINITY ? 0 : best;
+                    inTree[cur] = true;
+                    if(parent[cur] != -1){
+                        treeCost += key[cur];
+                        degree[cur]++;
+                        degree[parent[cur]]++;
+                    }
+                    for(int k = 1; k < n; k++){
+                        double w = undirected(dist, cur, k) + pi[cur] + pi[k];
+                        if(!inTree[k] && w < key[k]){
+                            key[k] = w;
+                            parent[k] = cur;
+                        }
+                    }
+                }
+            }
+            int first = -1, second = -1;
+            for(int k = 1; k < n; k++){
+                double w = undirected(dist, 0, k) + pi[k];
+                if(first == -1 || w < undirected(dist, 0, first) + pi[first]){
+                    second = first;
+                    first = k;
+                }
+                else if(second == -1 || w < undirected(dist, 0, second) + pi[second]) second = k;
+            }
+            if(second == -1) second = first;
+            treeCost += undirected(dist, 0, first) + pi[first] + undirected(dist, 0, second) + pi[second];
+            degree[0] = 2;
+            degree[first]++;
+            degree[second]++;
+            if(treeCost == Double.POSITIVE_INFINITY) return best == Double.NEGATIVE_INFINITY ? 0 : best;
+
+            double sum = 0;
+            for(int k = 0; k < n; k++) sum += pi[k];
+            double bound = treeCost - 2 * sum;
+            if(bound > best){
+                best = bound;
+                System.arraycopy(pi, 0, bestPi, 0, n);
+                sinceImproved = 0;
+            }
+            else if(++sinceImproved >= 20){
+                step /= 2;
+                sinceImproved = 0;
+            }
+
+            double norm = 0;
+            for(int k = 0; k < n; k++) norm += (degree[k] - 2) * (degree[k] - 2);
+            //every degree is 2, so the 1-tree is itself an optimal tour
+            if(norm == 0){
+                recordOneTree(parent, first, second);
+                break;
+            }
+            double target = stats.bestCost < Double.POSITIVE_INFINITY ? stats.bestCost : 2 * Math.abs(bound) + 1;
+            double t = step * (target - bound) / norm;
+            if(t <= 1e-12) break;
+            for(int k = 0; k < n; k++) pi[k] += t * (degree[k] - 2);
+        }
+
+        penaltySum = 0;
+        for(int k = 0; k < n; k++) penaltySum += bestPi[k];
+        for(int i = 0; i < n; i++){
+            for(int j = 0; j < n; j++){
+                adjusted[i * n + j] = dist[i * n + j] + bestPi[i] + bestPi[j];
+            }
+        }
+        return best;
+    }
+
+    //Walks the 1-tree whose degrees are all 2 as a tour from the source, out along first and back along second,
+    //and keeps it in whichever direction is cheaper under the real, possibly asymmetric, weights
+    private void recordOneTree(int[] parent, int first, int second){
+        if(n < 3) return;
+        int[] neighbors = new int[2 * n];
+        int[] degree = new int[n];
+        for(int k = 1; k < n; k++){
+            if(parent[k] == -1) continue;
+            neighbors[2 * k + degree[k]++] = parent[k];
+            neighbors[2 * parent[k] + degree[parent[k]]++] = k;
+        }
+        int[] tour = new int[n];
+        int previous = 0;
+        tour[1] = first;
+        for(int i = 2; i < n; i++){
+            int cur = tour[i - 1];
+            tour[i] = neighbors[2 * cur] == previous ? neighbors[2 * cur + 1] : neighbors[2 * cur];
+            previous = cur;
+        }
+        offerTour(tour.clone());
+        reverse(tour, 1, n - 1);
+        offerTour(tour);
+    }
+
+    /**
+     * Lower bound on the adjusted cost of finishing the tour from last through every unvisited vertex and back
+     * to the source: a spanning tree over the unvisited vertices plus the cheapest edge into it from last and
+     * the cheapest edge out of it to the source.
+     */
+    private double completionBound(int last, long visited){
+        int count = 0;
+        double toTree = Double.POSITIVE_INFINITY, fromTree = Double.POSITIVE_INFINITY;
+        for(int k = 1; k < n; k++){
+            if((visited & (1L << k)) != 0) continue;
+            remaining[count++] = k;
+            toTree = Math.min(toTree, adjusted[last * n + k]);
+            fromTree = Math.min(fromTree, adjusted[k * n]);
+        }
+
+        //Prim's over the unvisited vertices, swapping finished ones to the front of remaining
+        double treeCost = 0;
+        key[remaining[0]] = 0;
+        for(int i = 1; i < count; i++) key[remaining[i]] = Double.POSITIVE_INFINITY;
+        for(int done = 0; done < count; done++){
+            int bestAt = done;
+            for(int i = done + 1; i < count; i++){
+                if(key[remaining[i]] < key[remaining[bestAt]]) bestAt = i;
+            }
+            int cur = remaining[bestAt];
+            remaining[bestAt] = remaining[done];
+            remaining[done] = cur;
+            treeCost += key[cur];
+            if(treeCost == Double.POSITIVE_INFINITY) return treeCost;
+            for(int i = done + 1; i < count; i++){
+                int k = remaining[i];
+                double w = undirected(adjusted, cur, k);
+                if(w < key[k]) key[k] = w;
+            }
+        }
+        return treeCost + toTree + fromTree;
+    }
+
+    //The smallest bound among the open subtrees while the search is at depth with the given bound: the siblings not
+    //yet searched at each shallower depth, and the subtree being entered. Every part of the search tree outside
+    //them is finished, so no tour cheaper than this is left unless it was already found
+    private double openBound(int depth, double bound){
+        double open = Math.min(bound, stats.bestCost);
+        for(int d = 1; d < depth; d++){
+            for(int i = explored[d] + 1; i < childCount[d]; i++){
+                open = Math.min(open, childBounds[d][i]);
+            }
+        }
+        return Math.max(stats.lowerBound, open);
+    }
+
+    private void search(int depth, long visited, double cost, double adjustedCost, double bound){
+        stats.nodesExplored++;
+        if(progress != null && stats.nodesExplored % reportInterval == 0){
+            stats.lowerBound = openBound(depth, bound);
+            progress.accept(stats);
+        }
+        int last = path[depth - 1];
+
+        if(depth == n){
+            double total = cost + dist[last * n];
+            if(total < stats.bestCost){
+                stats.bestCost = total;
+                bestPath = path.clone();
+            }
+            return;
+        }
+
+        //small slack so rounding in the adjusted weights never cuts off a strictly better tour
+        if(bound - 1e-9 * Math.abs(bound) >= stats.bestCost){
+            stats.nodesPruned++;
+            return;
+        }
+
+        //try the nearest unvisited vertices first so good tours are found early
+        int[] next = candidates[depth];
+        int count = 0;
+        for(int k = 1; k < n; k++){
+            if((visited & (1L << k)) != 0 || dist[last * n + k] == Double.POSITIVE_INFINITY) continue;
+            int i = count++;
+            while(i > 0 && dist[last * n + next[i - 1]] > dist[last * n + k]){
+                next[i] = next[i - 1];
+                i--;
+            }
+            next[i] = k;
+        }
+        childCount[depth] = count;
+
+        //bound every child before searching any, so the ones still waiting can be reported as open. A child's tours
+        //are among its parent's, so it keeps the parent's bound whenever its own is weaker
+        double[] bounds = childBounds[depth];
+        for(int i = 0; i < count; i++){
+            int k = next[i];
+            bounds[i] = depth + 1 == n ? cost + dist[last * n + k] + dist[k * n]
+                : Math.max(bound, adjustedCost + adjusted[last * n + k] + completionBound(k, visited | (1L << k)) - 2 * penaltySum);
+        }
+
+        for(int i = 0; i < count; i++){
+            int k = next[i];
+            explored[depth] = i;
+            path[depth] = k;
+            search(depth + 1, visited | (1L << k), cost + dist[last * n + k], adjustedCost + adjusted[last * n + k], bounds[i]);
+        }
+    }
+}
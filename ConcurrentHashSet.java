@@ -0,0 +1,647 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe insertion-ordered hash set with the same {@code Deque} contract
+ * as {@link HashSet}, so several threads can build one graph at once.
+ *
+ * <p>
+ * Membership is split across lock stripes chosen by hash code, each a plain
+ * {@code HashMap} from element to node guarded by its own lock, so threads
+ * adding different elements rarely wait for each other. Insertion order is
+ * kept separately in a lock-free {@code ConcurrentLinkedDeque} of the nodes.
+ * Removing an element takes it out of its stripe and marks its node dead;
+ * iteration skips dead nodes, and they are swept out of the order deque once
+ * they outnumber the live ones.
+ *
+ * <p>
+ * Iterators are weakly consistent: they never throw
+ * {@code ConcurrentModificationException}, and may or may not show changes
+ * made after they were created.
+ */
+public class ConcurrentHashSet<T> implements Deque<T>, Cloneable {
+
+    private static class Node<T> {
+        final T data;
+        volatile boolean removed;
+
+        Node(T data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * The number of lock stripes, a power of two.
+     */
+    private final int stripeCount;
+    private final HashMap<Object, Node<T>>[] stripes;
+    private final ConcurrentLinkedDeque<Node<T>> order;
+    private final LongAdder size;
+    /**
+     * The number of dead nodes still in order.
+     */
+    private final AtomicInteger dead;
+
+    /**
+     * Creates an empty set with four lock stripes per available processor.
+     */
+    public ConcurrentHashSet() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an empty set with at least the specified number of lock stripes.
+     *
+     * @param stripes the least number of lock stripes
+     */
+    public ConcurrentHashSet(int stripes) {
+        stripeCount = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+        //Java can't create an array of a generic type, so make a wildcard one and cast it
+        @SuppressWarnings("unchecked")
+        HashMap<Object, Node<T>>[] maps = (HashMap<Object, Node<T>>[]) new HashMap<?, ?>[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            maps[i] = new HashMap<Object, Node<T>>();
+        this.stripes = maps;
+        order = new ConcurrentLinkedDeque<Node<T>>();
+        size = new LongAdder();
+        dead = new AtomicInteger();
+    }
+
+    private HashMap<Object, Node<T>> stripe(Object o) {
+        int hash = o.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripeCount - 1)];
+    }
+
+    /**
+     * Returns the number of items in this set.
+     *
+     * @return the number of items in this set.
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Returns {@code true} if this set contains no elements.
+     *
+     * @return {@code true} if this set contains no elements.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    //Adds item at the front or back of the iteration order unless it is already here
+    private boolean insert(T item, boolean first) {
+        if (item == null)
+            return false;
+        HashMap<Object, Node<T>> stripe = stripe(item);
+        synchronized (stripe) {
+            if (stripe.containsKey(item))
+                return false;
+            Node<T> node = new Node<T>(item);
+            stripe.put(item, node);
+            //still under the stripe lock, so a remove of the same item can't mark the node before it is queued
+            if (first)
+                order.addFirst(node);
+            else
+                order.addLast(node);
+        }
+        size.increment();
+        return true;
+    }
+
+    //Takes node's element out of its stripe if node is still the live node for it
+    private boolean kill(Node<T> node) {
+        HashMap<Object, Node<T>> stripe = stripe(node.data);
+        synchronized (stripe) {
+            if (node.removed || stripe.get(node.data) != node)
+                return false;
+            stripe.remove(node.data);
+            node.removed = true;
+        }
+        size.decrement();
+        return true;
+    }
+
+    //Sweeps dead nodes out of order once there are more of them than live ones
+    private void sweepIfNeeded() {
+        int deadNow = dead.incrementAndGet();
+        if (deadNow > 64 && deadNow > size()) {
+            int[] swept = { 0 };
+            order.removeIf(node -> {
+                if (!node.removed)
+                    return false;
+                swept[0]++;
+                return true;
+            });
+            dead.addAndGet(-swept[0]);
+        }
+    }
+
+    /**
+     * Returns the item in this set that is equal to the specified item, or
+     * {@code null} if no such item exists.
+     *
+     * @param item the item to be found in the set
+     * @return the item in this set that is equal to the specified item, or
+     *         {@code null} if no such item exists
+     */
+    public T get(T item) {
+        if (item == null)
+            return null;
+        HashMap<Object, Node<T>> stripe = stripe(item);
+        synchronized (stripe) {
+            Node<T> node = stripe.get(item);
+            return node == null ? null : node.data;
+        }
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified element.
+     *
+     * @param o element whose presence in this set is to be tested
+     * @return {@code true} if this set contains the specified element.
+     */
+    public boolean contains(Object o) {
+        if (o == null)
+            return false;
+        HashMap<Object, Node<T>> stripe = stripe(o);
+        synchronized (stripe) {
+            return stripe.containsKey(o);
+        }
+    }
+
+    /**
+     * Returns {@code true} if this set contains all of the elements in the
+     * specified collection.
+     *
+     * @param items collection to be checked for containment in this set
+     * @return {@code true} if this set contains all of the elements in the
+     *         specified collection.
+     */
+    public boolean containsAll(Collection<?> items) {
+        for (Object item : items)
+            if (!contains(item))
+                return false;
+        return true;
+    }
+
+    /**
+     * Adds the specified element to the end of this set if it is not already
+     * contained.
+     *
+     * @param item the item to add
+     * @return {@code true} if item was added to the set.
+     */
+    public boolean add(T item) {
+        return insert(item, false);
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to the end of this
+     * set, in the order they are returned by the collection's iterator.
+     *
+     * @param c the elements to be inserted into this set
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        boolean added = false;
+        for (T item : c)
+            added |= add(item);
+        return added;
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param o element to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element.
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (o == null)
+            return false;
+        HashMap<Object, Node<T>> stripe = stripe(o);
+        synchronized (stripe) {
+            Node<T> node = stripe.remove(o);
+            if (node == null)
+                return false;
+            node.removed = true;
+        }
+        size.decrement();
+        sweepIfNeeded();
+        return true;
+    }
+
+    /**
+     * Removes all of this set's elements that are also contained in the
+     * specified collection.
+     *
+     * @param c collection containing elements to be removed from this set
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean removed = false;
+        for (Object item : c)
+            removed |= remove(item);
+        return removed;
+    }
+
+    /**
+     * Retains only the elements in this set that are contained in the specified
+     * collection.
+     *
+     * @param c collection containing elements to be retained in this set
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean removed = false;
+        for (Node<T> node : order) {
+            if (!node.removed && !c.contains(node.data) && kill(node)) {
+                removed = true;
+                sweepIfNeeded();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all of the elements from this set.
+     */
+    @Override
+    public void clear() {
+        while (pollNode(true) != null)
+            ;
+    }
+
+    //The first or last live node, or null if there is none
+    private Node<T> peekNode(boolean first) {
+        for (Iterator<Node<T>> iter = first ? order.iterator() : order.descendingIterator(); iter.hasNext();) {
+            Node<T> node = iter.next();
+            if (!node.removed)
+                return node;
+        }
+        return null;
+    }
+
+    //Removes and returns the first or last live element, or null if there is none
+    private T pollNode(boolean first) {
+        while (true) {
+            Node<T> node = first ? order.pollFirst() : order.pollLast();
+            if (node == null)
+                return null;
+            if (node.removed) {
+                dead.decrementAndGet();
+                continue;
+            }
+            if (kill(node))
+                return node.data;
+        }
+    }
+
+    /**
+     * Retrieves, but does not remove, the first element of this set.
+     *
+     * @return the first element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T getFirst() {
+        Node<T> node = peekNode(true);
+        return node == null ? null : node.data;
+    }
+
+    /**
+     * Retrieves, but does not remove, the last element of this set.
+     *
+     * @return the last element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T getLast() {
+        Node<T> node = peekNode(false);
+        return node == null ? null : node.data;
+    }
+
+    /**
+     * Retrieves and removes the first element of this set.
+     *
+     * @return the first element of this set.
+     * @throws NoSuchElementException if this set is empty
+     */
+    @Override
+    public T removeFirst() {
+        T item = pollNode(true);
+        if (item == null)
+            throw new NoSuchElementException();
+        return item;
+    }
+
+    /**
+     * Retrieves and removes the last element of this set.
+     *
+     * @return the last element of this set.
+     * @throws NoSuchElementException if this set is empty
+     */
+    @Override
+    public T removeLast() {
+        T item = pollNode(false);
+        if (item == null)
+            throw new NoSuchElementException();
+        return item;
+    }
+
+    /**
+     * Inserts the specified element at the front of this set if it is not already
+     * contained.
+     */
+    @Override
+    public void addFirst(T item) {
+        insert(item, true);
+    }
+
+    /**
+     * Inserts the specified element at the end of this set if it is not already
+     * contained.
+     */
+    @Override
+    public void addLast(T item) {
+        insert(item, false);
+    }
+
+    /**
+     * Inserts the specified element at the front of this set if it is not already
+     * contained.
+     *
+     * @param item the element to add
+     * @return {@code true} if the element was added to this set, else
+     *         {@code false}.
+     */
+    @Override
+    public boolean offerFirst(T item) {
+        return insert(item, true);
+    }
+
+    /**
+     * Equivalent to {@link #add(Object)}.
+     *
+     * @param item the element to add
+     * @return {@code true} if the element was added to this set, else
+     *         {@code false}.
+     */
+    @Override
+    public boolean offerLast(T item) {
+        return add(item);
+    }
+
+    /**
+     * Retrieves and removes the first element of this set.
+     *
+     * @return the first element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T pollFirst() {
+        return pollNode(true);
+    }
+
+    /**
+     * Retrieves and removes the last element of this set.
+     *
+     * @return the last element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T pollLast() {
+        return pollNode(false);
+    }
+
+    /**
+     * Equivalent to {@link #getFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T peekFirst() {
+        return getFirst();
+    }
+
+    /**
+     * Equivalent to {@link #getLast()}.
+     *
+     * @return the last element of this set.
+     */
+    @Override
+    public T peekLast() {
+        return getLast();
+    }
+
+    /**
+     * Equivalent to {@link #remove(Object)}.
+     *
+     * @param o element to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element.
+     */
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return remove(o);
+    }
+
+    /**
+     * Equivalent to {@link #remove(Object)}.
+     *
+     * @param o element to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element.
+     */
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        return remove(o);
+    }
+
+    /**
+     * Equivalent to {@link #add(Object)}.
+     *
+     * @param item the element to add
+     * @return {@code true} if the element was added to this set, else
+     *         {@code false}.
+     */
+    @Override
+    public boolean offer(T item) {
+        return add(item);
+    }
+
+    /**
+     * Equivalent to {@link #removeFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    /**
+     * Equivalent to {@link #pollFirst()}.
+     *
+     * @return the first element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T poll() {
+        return pollFirst();
+    }
+
+    /**
+     * Equivalent to {@link #getFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    /**
+     * Equivalent to {@link #getFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T peek() {
+        return getFirst();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void push(T item) {
+        addFirst(item);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T pop() {
+        return removeFirst();
+    }
+
+    private class Walker implements Iterator<T> {
+        private final Iterator<Node<T>> nodes;
+        private Node<T> next, last;
+
+        Walker(boolean descending) {
+            nodes = descending ? order.descendingIterator() : order.iterator();
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (nodes.hasNext()) {
+                Node<T> node = nodes.next();
+                if (!node.removed) {
+                    next = node;
+                    return;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public T next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            last = next;
+            advance();
+            return last.data;
+        }
+
+        public void remove() {
+            if (last == null)
+                throw new IllegalStateException();
+            if (kill(last))
+                sweepIfNeeded();
+            last = null;
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator over this set in insertion order.
+     *
+     * @return an iterator over this set in insertion order.
+     */
+    public Iterator<T> iterator() {
+        return new Walker(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new Walker(true);
+    }
+
+    /**
+     * Returns an array containing all of the elements in this set in order.
+     *
+     * @return an array containing all of the elements in this set in order.
+     */
+    @Override
+    public Object[] toArray() {
+        return toArray(new Object[0]);
+    }
+
+    /**
+     * Returns an array containing all of the elements in this set in order; the
+     * runtime type of the returned array is that of the specified array.
+     *
+     * @param a the array into which the elements are to be stored, if it is big
+     *          enough; otherwise, a new array of the same runtime type is
+     *          allocated for this purpose.
+     * @return an array containing all of the elements in this set in order.
+     */
+    @Override
+    public <A> A[] toArray(A[] a) {
+        java.util.ArrayList<T> items = new java.util.ArrayList<T>(size());
+        for (T item : this)
+            items.add(item);
+        return items.toArray(a);
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return a string representation of the object.
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (T item : this) {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(item);
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConcurrentHashSet<T> clone() {
+        ConcurrentHashSet<T> set = new ConcurrentHashSet<T>(stripeCount);
+        for (T item : this)
+            set.add(item);
+        return set;
+    }
+}
@@ -0,0 +1,541 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Contraction Hierarchies for answering many point to point distance queries on the same graph.
+ *
+ * <p>
+ * Preprocessing contracts the vertices one at a time, least important first. Contracting a vertex removes it and
+ * adds a shortcut between each pair of its neighbors whose only shortest route went through it. Afterwards every
+ * shortest route can be found by searching only upward in the contraction order, forwards from the source and
+ * backwards from the target, so a query settles a few hundred vertices instead of most of the graph.
+ *
+ * <p>
+ * Vertices are referred to by their position in the graph's verticesOrdered. Each shortcut remembers the vertex it
+ * skips, so a query unpacks the route it found back into original edges and adds their weights up in order from
+ * the source, the same way shortestPaths does. Summing the shortcuts as stored would group the additions
+ * differently and could drift by a rounding error from shortestPaths on fractional weights. A hierarchy holds
+ * scratch space for its queries and is not safe to query from several threads at once.
+ */
+public class ContractionHierarchy{
+
+    //marks the start of a saved hierarchy
+    private static final int MAGIC = 0x43484732;
+
+    /**
+     * Most vertices a witness search may settle before giving up and adding the shortcut anyway.
+     */
+    public static int witnessSettleLimit = 500;
+
+    /**
+     * One direction of the upward graph, with the scratch space for searching it.
+     */
+    private static class Side{
+        //upward edges in compressed sparse row form: the edges of vertex u are at [offsets[u], offsets[u+1]), and
+        //middles holds the vertex each shortcut skips, or -1 for an original edge
+        final int[] offsets, targets;
+        final double[] weights;
+        final int[] middles;
+
+        //reset through the touched list so a query never costs O(V)
+        final double[] dist;
+        //the vertex and edge each touched vertex was last reached from
+        final int[] from, via;
+        final int[] touched;
+        int touchedCount;
+        final PairMinHeap queue = new PairMinHeap();
+
+        Side(int[] offsets, int[] targets, double[] weights, int[] middles){
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.middles = middles;
+            int n = offsets.length - 1;
+            dist = new double[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            from = new int[n];
+            via = new int[n];
+            touched = new int[n];
+        }
+
+        //the edge from u to v in this side's lists
+        int find(int u, int v){
+            for(int e = offsets[u]; e < offsets[u + 1]; e++){
+                if(targets[e] == v) return e;
+            }
+            throw new IllegalStateException("No edge from " + u + " to " + v);
+        }
+
+        void start(int vertex){
+            queue.clear();
+            dist[vertex] = 0;
+            from[vertex] = -1;
+            touched[touchedCount++] = vertex;
+            queue.push(vertex, 0);
+        }
+
+        //whether this side can still find a route shorter than best
+        boolean canImprove(double best){
+            return !queue.isEmpty() && queue.peekKey() < best;
+        }
+
+        //settles one vertex, returning the best route length through a vertex the other side has also reached
+        double step(Side other, double best){
+            double key = queue.peekKey();
+            int cur = queue.poll();
+            if(key > dist[cur]) return best;
+            best = Math.min(best, key + other.dist[cur]);
+            for(int e = offsets[cur]; e < offsets[cur + 1]; e++){
+                int next = targets[e];
+                double newDist = key + weights[e];
+                if(newDist < dist[next]){
+                    if(dist[next] == Double.POSITIVE_INFINITY) touched[touchedCount++] = next;
+                    dist[next] = newDist;
+                    from[next] = cur;
+                    via[next] = e;
+                    queue.push(next, newDist);
+                }
+            }
+            return best;
+        }
+
+        void reset(){
+            for(int i = 0; i < touchedCount; i++) dist[touched[i]] = Double.POSITIVE_INFINITY;
+            touchedCount = 0;
+        }
+    }
+
+    private final int n;
+    //forward holds each vertex's edges out to higher vertices, backward its edges in from higher vertices
+    private final Side forward, backward;
+
+    private ContractionHierarchy(int n, int[] forwardOffsets, int[] forwardTargets, double[] forwardWeights,
+            int[] forwardMiddles, int[] backwardOffsets, int[] backwardTargets, double[] backwardWeights,
+            int[] backwardMiddles){
+        this.n = n;
+        forward = new Side(forwardOffsets, forwardTargets, forwardWeights, forwardMiddles);
+        backward = new Side(backwardOffsets, backwardTargets, backwardWeights, backwardMiddles);
+    }
+
+    /**
+     * @return the number of vertices in this hierarchy
+     */
+    public int size(){
+        return n;
+    }
+
+    /**
+     * @return the number of upward edges, original and shortcut, kept for queries
+     */
+    public int edgeCount(){
+        return forward.targets.length + backward.targets.length;
+    }
+
+    /**
+     * The edges of one vertex while the graph is being contracted, as parallel arrays with at most one entry per
+     * neighbor. middle is the vertex a shortcut skips, or -1 for an original edge.
+     */
+    private static class EdgeList{
+        int[] to = new int[4];
+        double[] weight = new double[4];
+        int[] middle = new int[4];
+        int size;
+
+        //adds an edge to v, or replaces the existing one if this one is lighter
+        void put(int v, double w, int m){
+            for(int i = 0; i < size; i++){
+                if(to[i] == v){
+                    if(w < weight[i]){
+                        weight[i] = w;
+                        middle[i] = m;
+                    }
+                    return;
+                }
+            }
+            if(size == to.length){
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+                middle = Arrays.copyOf(middle, size * 2);
+            }
+            to[size] = v;
+            weight[size] = w;
+            middle[size] = m;
+            size++;
+        }
+
+        void remove(int v){
+            for(int i = 0; i < size; i++){
+                if(to[i] == v){
+                    size--;
+                    to[i] = to[size];
+                    weight[i] = weight[size];
+                    middle[i] = middle[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The state of preprocessing, thrown away once the hierarchy is built.
+     */
+    private static class Builder{
+        final int n;
+        final EdgeList[] out, in;
+        final boolean[] contracted;
+        final int[] deletedNeighbors;
+
+        //witness search scratch space
+        final double[] dist;
+        final int[] touched;
+        int touchedCount;
+        final boolean[] isTarget;
+        final PairMinHeap queue = new PairMinHeap();
+
+        //shortcuts found by the last call to findShortcuts, as parallel from/to/weight lists
+        int[] shortcutFrom = new int[16], shortcutTo = new int[16];
+        double[] shortcutWeight = new double[16];
+        int shortcutCount;
+        //the vertex the shortcut lists are for, or -1 once the graph has changed since
+        int shortcutsFor = -1;
+
+        Builder(int n){
+            this.n = n;
+            out = new EdgeList[n];
+            in = new EdgeList[n];
+            for(int i = 0; i < n; i++){
+                out[i] = new EdgeList();
+                in[i] = new EdgeList();
+            }
+            contracted = new boolean[n];
+            deletedNeighbors = new int[n];
+            dist = new double[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            touched = new int[n];
+            isTarget = new boolean[n];
+        }
+
+        /**
+         * Finds the shortcuts needed to contract u, leaving them in the shortcut lists. Each in-neighbor v gets a
+         * witness search for routes to the out-neighbors that avoid u; a shortcut v to w is only needed when no
+         * such route is as short as going through u.
+         */
+        void findShortcuts(int u){
+            shortcutCount = 0;
+            shortcutsFor = u;
+            EdgeList ins = in[u], outs = out[u];
+            double maxOut = 0;
+            for(int j = 0; j < outs.size; j++){
+                maxOut = Math.max(maxOut, outs.weight[j]);
+                isTarget[outs.to[j]] = true;
+            }
+
+            for(int i = 0; i < ins.size; i++){
+                int v = ins.to[i];
+                double toU = ins.weight[i];
+                witnessSearch(v, u, toU + maxOut, outs.size);
+                for(int j = 0; j < outs.size; j++){
+                    int w = outs.to[j];
+                    if(w == v) continue;
+                    double through = toU + outs.weight[j];
+                    if(dist[w] <= through) continue;
+                    if(shortcutCount == shortcutFrom.length){
+                        shortcutFrom = Arrays.copyOf(shortcutFrom, shortcutCount * 2);
+                        shortcutTo = Arrays.copyOf(shortcutTo, shortcutCount * 2);
+                        shortcutWeight = Arrays.copyOf(shortcutWeight, shortcutCount * 2);
+                    }
+                    shortcutFrom[shortcutCount] = v;
+                    shortcutTo[shortcutCount] = w;
+                    shortcutWeight[shortcutCount] = through;
+                    shortcutCount++;
+                }
+                resetWitness();
+            }
+            for(int j = 0; j < outs.size; j++) isTarget[outs.to[j]] = false;
+        }
+
+        /**
+         * Dijkstra's from v over the uncontracted vertices other than skip. Stops once every target is settled, the
+         * frontier is past maxDist or the settle limit is reached; the distances found are real routes either way.
+         */
+        void witnessSearch(int v, int skip, double maxDist, int targets){
+            dist[v] = 0;
+            touched[touchedCount++] = v;
+            queue.clear();
+            queue.push(v, 0);
+            int settled = 0;
+            while(!queue.isEmpty() && settled < witnessSettleLimit){
+                double key = queue.peekKey();
+                int cur = queue.poll();
+                if(key > dist[cur]) continue;
+                if(key > maxDist) break;
+                settled++;
+                if(isTarget[cur] && --targets == 0) break;
+                EdgeList edges = out[cur];
+                for(int j = 0; j < edges.size; j++){
+                    int next = edges.to[j];
+                    if(next == skip || contracted[next]) continue;
+                    double newDist = key + edges.weight[j];
+                    if(newDist < dist[next]){
+                        if(dist[next] == Double.POSITIVE_INFINITY) touched[touchedCount++] = next;
+                        dist[next] = newDist;
+                        queue.push(next, newDist);
+                    }
+                }
+            }
+        }
+
+        void resetWitness(){
+            for(int i = 0; i < touchedCount; i++) dist[touched[i]] = Double.POSITIVE_INFINITY;
+            touchedCount = 0;
+        }
+
+        //Lower is contracted sooner: twice the shortcuts added minus edges removed, plus neighbors already contracted
+        double priority(int u){
+            findShortcuts(u);
+            return 2 * (shortcutCount - (in[u].size + out[u].size)) + deletedNeighbors[u];
+        }
+
+        //Removes u from the remaining graph and adds the shortcuts that keep its neighbors' distances correct
+        void contract(int u){
+            if(shortcutsFor != u) findShortcuts(u);
+            shortcutsFor = -1;
+            contracted[u] = true;
+            for(int i = 0; i < in[u].size; i++){
+                out[in[u].to[i]].remove(u);
+                deletedNeighbors[in[u].to[i]]++;
+            }
+            for(int j = 0; j < out[u].size; j++){
+                in[out[u].to[j]].remove(u);
+                deletedNeighbors[out[u].to[j]]++;
+            }
+            for(int k = 0; k < shortcutCount; k++){
+                out[shortcutFrom[k]].put(shortcutTo[k], shortcutWeight[k], u);
+                in[shortcutTo[k]].put(shortcutFrom[k], shortcutWeight[k], u);
+            }
+        }
+    }
+
+    /**
+     * Builds a contraction hierarchy over g. Vertex i of the hierarchy is g.getVertex(i).
+     *
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @return the preprocessed hierarchy
+     */
+    public static <V, E> ContractionHierarchy build(Graph<V, E> g){
+        int n = g.verticesOrdered.size();
+        Builder builder = new Builder(n);
+        for(int u = 0; u < n; u++){
+            Graph.Vertex<V, E> vertex = g.verticesOrdered.get(u);
+            for(Graph.Edge<V, E> edge : vertex.edgesOut()){
+                int v = edge.other(vertex).id();
+                if(v == u) continue;
+                double w = ((Graph.WeightedEdge<V, E>) edge).weight;
+                builder.out[u].put(v, w, -1);
+                builder.in[v].put(u, w, -1);
+            }
+        }
+
+        IndexedMinHeap order = new IndexedMinHeap(n);
+        for(int u = 0; u < n; u++) order.insert(u, builder.priority(u));
+
+        //the edges each vertex still has when it is contracted all lead to vertices contracted later, ie upward
+        EdgeList[] upOut = new EdgeList[n];
+        EdgeList[] upIn = new EdgeList[n];
+        while(!order.isEmpty()){
+            int u = order.poll();
+            //priorities go stale as the graph changes, so recheck before committing to u
+            double priority = builder.priority(u);
+            if(!order.isEmpty() && priority > order.key(order.peek())){
+                order.insert(u, priority);
+                continue;
+            }
+            upOut[u] = copy(builder.out[u]);
+            upIn[u] = copy(builder.in[u]);
+            builder.contract(u);
+            for(EdgeList neighbors : new EdgeList[]{upOut[u], upIn[u]}){
+                for(int i = 0; i < neighbors.size; i++){
+                    int v = neighbors.to[i];
+                    if(order.contains(v)) order.changeKey(v, builder.priority(v));
+                }
+            }
+        }
+
+        int[][] forward = compress(upOut, n);
+        int[][] backward = compress(upIn, n);
+        return new ContractionHierarchy(n, forward[0], forward[1], weights(upOut, forward[0]), middles(upOut, forward[0]),
+            backward[0], backward[1], weights(upIn, backward[0]), middles(upIn, backward[0]));
+    }
+
+    private static EdgeList copy(EdgeList edges){
+        EdgeList copy = new EdgeList();
+        copy.to = Arrays.copyOf(edges.to, edges.size);
+        copy.weight = Arrays.copyOf(edges.weight, edges.size);
+        copy.middle = Arrays.copyOf(edges.middle, edges.size);
+        copy.size = edges.size;
+        return copy;
+    }
+
+    //offsets and targets of the lists laid end to end
+    private static int[][] compress(EdgeList[] lists, int n){
+        int[] offsets = new int[n + 1];
+        for(int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + lists[u].size;
+        int[] targets = new int[offsets[n]];
+        for(int u = 0; u < n; u++) System.arraycopy(lists[u].to, 0, targets, offsets[u], lists[u].size);
+        return new int[][]{offsets, targets};
+    }
+
+    private static double[] weights(EdgeList[] lists, int[] offsets){
+        double[] weights = new double[offsets[offsets.length - 1]];
+        for(int u = 0; u < lists.length; u++) System.arraycopy(lists[u].weight, 0, weights, offsets[u], lists[u].size);
+        return weights;
+    }
+
+    private static int[] middles(EdgeList[] lists, int[] offsets){
+        int[] middles = new int[offsets[offsets.length - 1]];
+        for(int u = 0; u < lists.length; u++) System.arraycopy(lists[u].middle, 0, middles, offsets[u], lists[u].size);
+        return middles;
+    }
+
+    /**
+     * @param source position of the source vertex
+     * @param target position of the target vertex
+     * @return the length of the shortest route from source to target, or infinity if there is none
+     */
+    public double distance(int source, int target){
+        if(source == target) return 0.0;
+        forward.start(source);
+        backward.start(target);
+
+        //both searches only go up, so each can stop once its own frontier is past the best meeting point
+        double best = Double.POSITIVE_INFINITY;
+        boolean forwardGoing = true, backwardGoing = true;
+        while(forwardGoing || backwardGoing){
+            forwardGoing = forwardGoing && forward.canImprove(best);
+            if(forwardGoing) best = forward.step(backward, best);
+            backwardGoing = backwardGoing && backward.canImprove(best);
+            if(backwardGoing) best = backward.step(forward, best);
+        }
+
+        if(best < Double.POSITIVE_INFINITY) best = unpack(source, target);
+        forward.reset();
+        backward.reset();
+        return best;
+    }
+
+    //The length of the route the last search found, added up one original edge at a time from source, so it comes
+    //out exactly as Dijkstra's would along the same route
+    private double unpack(int source, int target){
+        //the vertex both searches reached with the shortest route through it
+        int meet = -1;
+        double best = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < forward.touchedCount; i++){
+            int v = forward.touched[i];
+            double through = forward.dist[v] + backward.dist[v];
+            if(through < best){
+                best = through;
+                meet = v;
+            }
+        }
+
+        //the forward edges run from source up to meet, so collect them backwards and add them in order
+        int[] up = new int[8];
+        int count = 0;
+        for(int v = meet; v != source; v = forward.from[v]){
+            if(count == up.length) up = Arrays.copyOf(up, count * 2);
+            up[count++] = forward.via[v];
+        }
+        double length = 0.0;
+        for(int v = source, i = count - 1; i >= 0; v = forward.targets[up[i]], i--){
+            int e = up[i];
+            length = add(length, v, forward.targets[e], forward.weights[e], forward.middles[e]);
+        }
+        //the backward edges run from target up to meet, so walking down from meet is the order they are travelled in
+        for(int v = meet; v != target; v = backward.from[v]){
+            int e = backward.via[v];
+            length = add(length, v, backward.from[v], backward.weights[e], backward.middles[e]);
+        }
+        return length;
+    }
+
+    //length plus the weights of the original edges under the edge from u to v with the given weight and middle
+    private double add(double length, int u, int v, double weight, int middle){
+        if(middle == -1) return length + weight;
+        //middle was contracted before both ends, so u to middle is one of its backward edges and middle to v one of
+        //its forward edges
+        int in = backward.find(middle, u);
+        int out = forward.find(middle, v);
+        length = add(length, u, middle, backward.weights[in], backward.middles[in]);
+        return add(length, middle, v, forward.weights[out], forward.middles[out]);
+    }
+
+    /**
+     * Writes this hierarchy to a file so it can be loaded without preprocessing again.
+     *
+     * @param filename
+     * @throws IOException
+     */
+    public void save(String filename) throws IOException{
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))){
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            writeArrays(out, forward.offsets, forward.targets, forward.weights, forward.middles);
+            writeArrays(out, backward.offsets, backward.targets, backward.weights, backward.middles);
+        }
+    }
+
+    /**
+     * Reads a hierarchy written by save.
+     *
+     * @param filename
+     * @return the hierarchy stored in the file
+     * @throws IOException if the file can't be read or wasn't written by save
+     */
+    public static ContractionHierarchy load(String filename) throws IOException{
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))){
+            if(in.readInt() != MAGIC) throw new IOException(filename + " is not a saved contraction hierarchy");
+            int n = in.readInt();
+            int[] forwardOffsets = readInts(in, n + 1);
+            int[] forwardTargets = readInts(in, forwardOffsets[n]);
+            double[] forwardWeights = readDoubles(in, forwardOffsets[n]);
+            int[] forwardMiddles = readInts(in, forwardOffsets[n]);
+            int[] backwardOffsets = readInts(in, n + 1);
+            int[] backwardTargets = readInts(in, backwardOffsets[n]);
+            double[] backwardWeights = readDoubles(in, backwardOffsets[n]);
+            int[] backwardMiddles = readInts(in, backwardOffsets[n]);
+            return new ContractionHierarchy(n, forwardOffsets, forwardTargets, forwardWeights, forwardMiddles,
+                backwardOffsets, backwardTargets, backwardWeights, backwardMiddles);
+        }
+    }
+
+    private static void writeArrays(DataOutputStream out, int[] offsets, int[] targets, double[] weights, int[] middles) throws IOException{
+        for(int offset : offsets) out.writeInt(offset);
+        for(int target : targets) out.writeInt(target);
+        for(double weight : weights) out.writeDouble(weight);
+        for(int middle : middles) out.writeInt(middle);
+    }
+
+    private static int[] readInts(DataInputStream in, int length) throws IOException{
+        int[] values = new int[length];
+        for(int i = 0; i < length; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    private static double[] readDoubles(DataInputStream in, int length) throws IOException{
+        double[] values = new double[length];
+        for(int i = 0; i < length; i++) values[i] = in.readDouble();
+        return values;
+    }
+}
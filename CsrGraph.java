@@ -0,0 +1,197 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+import java.util.Arrays;
+
+/**
+ * An immutable compressed sparse row snapshot of a {@link Graph}, made with
+ * {@link Graph#freeze()}.
+ *
+ * <p>
+ * Vertices are numbered by their position in the graph's
+ * {@code verticesOrdered}. The edges leaving vertex {@code i} are the slots
+ * {@link #offset(int) offset(i)} up to {@code offset(i + 1)}, and each slot's
+ * {@link #target(int) target}, {@link #weight(int) weight} and
+ * {@link #getEdge(int) edge} are read from flat arrays, so a traversal walks
+ * them instead of iterating a {@code HashMap} per vertex and casting every edge
+ * to read its weight. An undirected edge takes a slot at each of its ends.
+ *
+ * <p>
+ * Later changes to the graph are not reflected in the snapshot.
+ */
+public class CsrGraph<V, E> {
+    /**
+     * The number of vertices.
+     */
+    public final int n;
+    /**
+     * The first slot of each vertex's edges, with {@code offsets[n]} the total
+     * number of slots.
+     */
+    private final int[] offsets;
+    /**
+     * The position of the vertex at the far end of each slot.
+     */
+    private final int[] targets;
+    /**
+     * The weight of the edge in each slot, or 0 for an unweighted edge.
+     */
+    private final double[] weights;
+    /**
+     * The edge of the original graph in each slot, so results can be handed
+     * back as {@code Graph.Edge}s.
+     */
+    private final Graph.Edge<V, E>[] edges;
+    /**
+     * The vertices of the original graph by position.
+     */
+    private final Graph.Vertex<V, E>[] vertices;
+
+    /**
+     * Creates a snapshot of the specified graph.
+     *
+     * @param g the graph to copy
+     */
+    CsrGraph(Graph<V, E> g) {
+        n = g.verticesOrdered.size();
+        vertices = g.verticesOrdered.toArray(CsrGraph.<V, E>newVertexArray(n));
+        offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + vertices[i].edgesOut().size();
+        }
+        targets = new int[offsets[n]];
+        weights = new double[offsets[n]];
+        edges = newEdgeArray(offsets[n]);
+        for (int i = 0; i < n; i++) {
+            int slot = offsets[i];
+            for (Graph.Edge<V, E> edge : vertices[i].edgesOut()) {
+                targets[slot] = edge.other(vertices[i]).id();
+                weights[slot] = edge instanceof Graph.WeightedEdge ? ((Graph.WeightedEdge<V, E>) edge).weight : 0.0;
+                edges[slot] = edge;
+                slot++;
+            }
+        }
+    }
+
+    /**
+     * Creates an array of vertices. Java can't create an array of a generic
+     * type, so this is the one place the cast is needed.
+     *
+     * @param length the length of the array
+     * @return a new array of vertices of the specified length.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V, E> Graph.Vertex<V, E>[] newVertexArray(int length) {
+        return (Graph.Vertex<V, E>[]) new Graph.Vertex<?, ?>[length];
+    }
+
+    /**
+     * Creates an array of edges. Java can't create an array of a generic type,
+     * so this is the one place the cast is needed.
+     *
+     * @param length the length of the array
+     * @return a new array of edges of the specified length.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V, E> Graph.Edge<V, E>[] newEdgeArray(int length) {
+        return (Graph.Edge<V, E>[]) new Graph.Edge<?, ?>[length];
+    }
+
+    /**
+     * Returns the first slot of the edges leaving the vertex at the specified
+     * position. {@code offset(n)} is the total number of slots.
+     *
+     * @param i the position of the vertex, or {@code n}
+     * @return the first slot of the edges leaving the vertex at position
+     *         {@code i}.
+     */
+    public int offset(int i) {
+        return offsets[i];
+    }
+
+    /**
+     * Returns the position of the vertex at the far end of the specified slot.
+     *
+     * @param slot the slot of the edge
+     * @return the position of the vertex at the far end of the specified slot.
+     */
+    public int target(int slot) {
+        return targets[slot];
+    }
+
+    /**
+     * Returns the weight of the edge in the specified slot, or 0 for an
+     * unweighted edge.
+     *
+     * @param slot the slot of the edge
+     * @return the weight of the edge in the specified slot.
+     */
+    public double weight(int slot) {
+        return weights[slot];
+    }
+
+    /**
+     * Returns the number of edges leaving the vertex at the specified position.
+     *
+     * @param i the position of the vertex
+     * @return the number of edges leaving the vertex at the specified position.
+     */
+    public int degree(int i) {
+        return offsets[i + 1] - offsets[i];
+    }
+
+    /**
+     * Returns the vertex at the specified position.
+     *
+     * @param i the position of the vertex
+     * @return the vertex at the specified position.
+     */
+    public Graph.Vertex<V, E> getVertex(int i) {
+        return vertices[i];
+    }
+
+    /**
+     * Returns the edge of the original graph in the specified slot.
+     *
+     * @param slot the slot of the edge
+     * @return the edge of the original graph in the specified slot.
+     */
+    public Graph.Edge<V, E> getEdge(int slot) {
+        return edges[slot];
+    }
+
+    /**
+     * Returns the slot of the edge from the vertex at position {@code i} to the
+     * vertex at position {@code j}, or -1 if there is no such edge. Takes time
+     * proportional to the degree of {@code i}.
+     *
+     * @param i the position of the source
+     * @param j the position of the target
+     * @return the slot of the edge from {@code i} to {@code j}, or -1 if there is
+     *         no such edge.
+     */
+    public int slot(int i, int j) {
+        for (int slot = offsets[i]; slot < offsets[i + 1]; slot++) {
+            if (targets[slot] == j)
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a flat row-major matrix where {@code [i*n + j]} is the weight of the
+     * edge from {@code i} to {@code j}, or infinity where there is no edge.
+     *
+     * @return the weight matrix of this graph.
+     */
+    public double[] weightMatrix() {
+        double[] matrix = new double[n * n];
+        Arrays.fill(matrix, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) {
+            for (int slot = offsets[i]; slot < offsets[i + 1]; slot++) {
+                matrix[i * n + targets[slot]] = weights[slot];
+            }
+        }
+        return matrix;
+    }
+}
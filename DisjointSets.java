@@ -0,0 +1,94 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+/**
+ * A disjoint-set forest over the integers {@code 0..n-1}.
+ *
+ * <p>
+ * Each item starts in a set of its own. Sets are joined by rank, so the
+ * shorter tree always goes under the taller one, and {@link #find(int)}
+ * points every item on the path it walks straight at the root. Together
+ * these make any sequence of operations take nearly constant amortized time
+ * each. The forest is kept in two {@code int} arrays, so it allocates nothing
+ * after construction.
+ */
+public class DisjointSets {
+    /**
+     * The parent of each item, or the item itself if it is a root.
+     */
+    private final int[] parent;
+    /**
+     * An upper bound on the height of the tree under each root.
+     */
+    private final int[] rank;
+    /**
+     * The number of disjoint sets.
+     */
+    private int count;
+
+    /**
+     * Creates {@code n} sets each holding one of the items {@code 0..n-1}.
+     *
+     * @param n the number of items
+     */
+    public DisjointSets(int n) {
+        parent = new int[n];
+        rank = new int[n];
+        for (int i = 0; i < n; i++)
+            parent[i] = i;
+        count = n;
+    }
+
+    /**
+     * Returns the number of disjoint sets.
+     *
+     * @return the number of disjoint sets.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the root of the set holding the specified item, which is the same
+     * for every item in that set.
+     *
+     * @param item the item to look up
+     * @return the root of the set holding the specified item.
+     */
+    public int find(int item) {
+        int root = item;
+        while (parent[root] != root)
+            root = parent[root];
+        while (parent[item] != root) {
+            int next = parent[item];
+            parent[item] = root;
+            item = next;
+        }
+        return root;
+    }
+
+    /**
+     * Joins the sets holding the specified items.
+     *
+     * @param a an item
+     * @param b an item
+     * @return {@code true} if the items were in different sets.
+     */
+    public boolean union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b)
+            return false;
+        if (rank[a] < rank[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        parent[b] = a;
+        if (rank[a] == rank[b])
+            rank[a]++;
+        count--;
+        return true;
+    }
+}
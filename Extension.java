@@ -235,62 +235,7 @@
      *         in the form of a collection of edges in order.
      */
     public static <V, E> Collection<Graph.Edge<V, E>> tspApprox(Graph<V, E> g, int target){
-        Collection<Graph.Edge<V, E>> mst = mst(g);
-        Stack<Graph.Vertex<V, E>> stack = new Stack<Graph.Vertex<V,E>>();
-        ArrayList<Graph.Vertex<V,E>> visited = new ArrayList<Graph.Vertex<V, E>>();
-        List<Graph.Vertex<V, E>> path = new ArrayList<Graph.Vertex<V,E>>();
-        List<Graph.Edge<V, E>> toReturn = new ArrayList<Graph.Edge<V,E>>();
-
-        stack.push(g.getVertex(target));
-        visited.add(g.getVertex(target));
-        Graph.Vertex<V,E> cur = null;
-        while(!stack.isEmpty()){
-            //check if this is the final city
-            if(path.size() == g.verticesOrdered.size()-2){
-                cur = stack.pop();
-                path.add(cur);
-                stack.push(g.getVertex(target));
-                visited.remove(target);
-                
-            }
-
-            if(path.size() == g.verticesOrdered.size()-1){
-                
-                cur = stack.pop();
-                path.add(cur);
-
-                for(Graph.Vertex<V, E> vertex : path){
-                    if(toReturn.size()<47){ 
-                        Graph.Edge<V, E> curEdge = vertex.getEdgeTo(path.get((path.indexOf(vertex)+1) % path.size()));
-                        toReturn.add(curEdge);
-                    }
-                }
-                return toReturn;
-            }
-            cur = stack.pop();
-
-            Collection<Graph.Edge<V,E>> edgesOut = cur.edgesOut();
-            ArrayList<Graph.Edge<V,E>> edges = new ArrayList<Graph.Edge<V,E>>();
-
-            for(Graph.Edge<V,E> edge : edgesOut){
-                edges.add(edge);
-            }
-            Collections.shuffle(edges);
-
-            for(Graph.Edge<V,E> edge : edges){
-                if(mst.contains(edge) && !visited.contains(edge.other(cur))){
-                    stack.push(edge.other(cur));
-                    visited.add(edge.other(cur));
-                }
-            }
-            
-            path.add(cur);
-
-        }
-        
-        return toReturn;
-        
-
+        return GraphAlgorithms.tspApprox(g, g.getVertex(target));
     }
 
 
@@ -0,0 +1,345 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.util.Arrays;
+
+/**
+ * Minimal spanning trees of complete graphs that are never built, for inputs like readData's where every pair of
+ * cities has an edge. Holding n^2 WeightedEdges and 2n^2 map entries runs out of memory long before n = 100k, so
+ * the trees here are computed straight from the points, in O(n) memory.
+ *
+ * <p>
+ * For points in the plane, mst(x, y) runs Boruvka's over a kd-tree: each round every point looks for its nearest
+ * point in another component, skipping subtrees that lie wholly inside its own component or farther away than the
+ * best edge its component already has. The tree splits at medians, so clustered cities are searched as quickly as
+ * evenly spread ones. That is exact, since the lightest edge leaving a
+ * component is the shortest of its points' nearest foreign neighbours. For any other distance, mst(n, oracle) runs
+ * Prim's over an array of best distances, O(n^2) time with no heap and no edges stored.
+ *
+ * <p>
+ * Vertices are numbered 0..n-1 by their position in the input, and the tree comes back as parallel arrays of
+ * endpoints rather than Graph.Edges, since there is no Graph to hold them.
+ */
+public class GeometricMst{
+
+    /**
+     * The distance between two vertices, by number.
+     */
+    public interface DistanceOracle{
+        double distance(int i, int j);
+    }
+
+    /**
+     * A spanning tree as parallel arrays of its n - 1 edges.
+     */
+    public static class Tree{
+        /**
+         * The endpoints of each edge.
+         */
+        public final int[] u, v;
+        /**
+         * The length of each edge.
+         */
+        public final double[] weights;
+        /**
+         * The total length of the tree.
+         */
+        public final double weight;
+
+        Tree(int[] u, int[] v, double[] weights){
+            this.u = u;
+            this.v = v;
+            this.weights = weights;
+            double total = 0.0;
+            for(double w : weights) total += w;
+            weight = total;
+        }
+
+        /**
+         * @return the number of edges in the tree
+         */
+        public int size(){
+            return weights.length;
+        }
+
+        public String toString(){
+            return weight + " over " + weights.length + " edges";
+        }
+    }
+
+    /**
+     * Prim's over an oracle. best[j] holds the shortest distance from the tree to j, and each step adds the closest
+     * vertex and relaxes every other vertex against it, finding the next closest in the same pass. O(n^2) time and
+     * O(n) memory.
+     *
+     * @param n the number of vertices
+     * @param oracle the distance between each pair, which must be symmetric
+     * @return the minimal spanning tree of the complete graph on n vertices
+     */
+    public static Tree mst(int n, DistanceOracle oracle){
+        int edges = Math.max(n - 1, 0);
+        int[] us = new int[edges];
+        int[] vs = new int[edges];
+        double[] weights = new double[edges];
+        if(n == 0) return new Tree(us, vs, weights);
+
+        //vertices not yet in the tree are kept in rest[0..remaining), with their best distance and where it is from
+        int[] rest = new int[n - 1];
+        double[] best = new double[n];
+        int[] from = new int[n];
+        for(int i = 1; i < n; i++) rest[i - 1] = i;
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        int remaining = n - 1;
+        int cur = 0;
+        for(int k = 0; k < edges; k++){
+            int next = -1;
+            for(int r = 0; r < remaining; r++){
+                int j = rest[r];
+                double d = oracle.distance(cur, j);
+                if(d < best[j]){
+                    best[j] = d;
+                    from[j] = cur;
+                }
+                if(next == -1 || best[j] < best[rest[next]]) next = r;
+            }
+            cur = rest[next];
+            rest[next] = rest[--remaining];
+            us[k] = from[cur];
+            vs[k] = cur;
+            weights[k] = best[cur];
+        }
+        return new Tree(us, vs, weights);
+    }
+
+    /**
+     * @param x the x coordinate of each point
+     * @param y the y coordinate of each point
+     * @return the minimal spanning tree of the complete graph on the points, weighted by straight line distance
+     */
+    public static Tree mst(double[] x, double[] y){
+        return new KdBoruvka(x, y).run();
+    }
+
+    //Boruvka's with a nearest foreign neighbour search over a kd-tree, which splits wherever the points are rather
+    //than at fixed places, so clustered points cost no more than spread out ones
+    private static class KdBoruvka{
+        //the most points a leaf holds
+        private static final int LEAF_SIZE = 8;
+        private final double[] x, y;
+        private final int n;
+        //the points under node k are order[start[k]..end[k]), all inside the box minX[k]..maxX[k], minY[k]..maxY[k].
+        //An inner node's children are left[k] and left[k] + 1, and a leaf has left[k] == -1
+        private final int[] order, start, end, left;
+        private final double[] minX, maxX, minY, maxY;
+        private int nodes;
+        //the coordinates and component of the point at each position of order, so a leaf scans adjacent memory
+        private final double[] px, py;
+        private final int[] positionComponent;
+        //the component every point under each node is in, or -1 if they are in more than one
+        private final int[] nodeComponent;
+        //nodes still to search and the squared distance to each one's box
+        private final int[] stack = new int[128];
+        private final double[] stackDistance = new double[128];
+        private final int[] component;
+        //the lightest edge found so far leaving each component by root, as its squared length and endpoints
+        private final double[] bestLength;
+        private final int[] bestFrom, bestTo;
+
+        KdBoruvka(double[] x, double[] y){
+            if(x.length != y.length) throw new IllegalArgumentException("x and y must have the same length");
+            this.x = x;
+            this.y = y;
+            n = x.length;
+            order = new int[n];
+            for(int i = 0; i < n; i++) order[i] = i;
+            //every leaf holds at least one point, so there are fewer than 2n nodes
+            int capacity = Math.max(2 * n, 1);
+            start = new int[capacity];
+            end = new int[capacity];
+            left = new int[capacity];
+            minX = new double[capacity];
+            maxX = new double[capacity];
+            minY = new double[capacity];
+            maxY = new double[capacity];
+            nodeComponent = new int[capacity];
+            if(n > 0){
+                nodes = 1;
+                build(0, 0, n);
+            }
+            px = new double[n];
+            py = new double[n];
+            for(int p = 0; p < n; p++){
+                px[p] = x[order[p]];
+                py[p] = y[order[p]];
+            }
+            positionComponent = new int[n];
+
+            component = new int[n];
+            bestLength = new double[n];
+            bestFrom = new int[n];
+            bestTo = new int[n];
+        }
+
+        //Makes node k the box around order[from..to), split at the median of its wider side until it is a leaf
+        private void build(int k, int from, int to){
+            start[k] = from;
+            end[k] = to;
+            double loX = Double.POSITIVE_INFINITY, hiX = Double.NEGATIVE_INFINITY;
+            double loY = Double.POSITIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
+            for(int p = from; p < to; p++){
+                int i = order[p];
+                loX = Math.min(loX, x[i]);
+                hiX = Math.max(hiX, x[i]);
+                loY = Math.min(loY, y[i]);
+                hiY = Math.max(hiY, y[i]);
+            }
+            minX[k] = loX;
+            maxX[k] = hiX;
+            minY[k] = loY;
+            maxY[k] = hiY;
+            if(to - from <= LEAF_SIZE){
+                left[k] = -1;
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            select(hiX - loX >= hiY - loY ? x : y, from, to, mid);
+            int child = nodes;
+            nodes += 2;
+            left[k] = child;
+            build(child, from, mid);
+            build(child + 1, mid, to);
+        }
+
+        //Quickselect: reorders order[from..to) so no point before position k has a larger coordinate than the one
+        //at k, and none after it a smaller one
+        private void select(double[] coords, int from, int to, int k){
+            while(to - from > 1){
+                double pivot = coords[order[(from + to) >>> 1]];
+                int i = from, j = to - 1;
+                while(i <= j){
+                    while(coords[order[i]] < pivot) i++;
+                    while(coords[order[j]] > pivot) j--;
+                    if(i <= j){
+                        int swap = order[i];
+                        order[i++] = order[j];
+                        order[j--] = swap;
+                    }
+                }
+                //now order[from..j] are at most pivot and order[i..to) at least pivot
+                if(k <= j) to = j + 1;
+                else if(k >= i) from = i;
+                else return;
+            }
+        }
+
+        Tree run(){
+            int edges = Math.max(n - 1, 0);
+            int[] us = new int[edges];
+            int[] vs = new int[edges];
+            double[] weights = new double[edges];
+            DisjointSets sets = new DisjointSets(n);
+            int added = 0;
+            while(added < edges){
+                for(int i = 0; i < n; i++){
+                    component[i] = sets.find(i);
+                    bestLength[i] = Double.POSITIVE_INFINITY;
+                    bestFrom[i] = -1;
+                }
+                for(int p = 0; p < n; p++) positionComponent[p] = component[order[p]];
+                labelNodes();
+                //in tree order, so one search after another walks the same part of the tree
+                for(int p = 0; p < n; p++) nearestForeign(p);
+                for(int root = 0; root < n; root++){
+                    if(component[root] != root || bestFrom[root] == -1) continue;
+                    int a = bestFrom[root];
+                    int b = bestTo[root];
+                    if(sets.union(a, b)){
+                        us[added] = a;
+                        vs[added] = b;
+                        weights[added] = Math.sqrt(bestLength[root]);
+                        added++;
+                    }
+                }
+            }
+            return new Tree(us, vs, weights);
+        }
+
+        //Notes the component under each node. Children always come after their parent, so a backwards pass sees
+        //both children of a node before the node itself
+        private void labelNodes(){
+            for(int k = nodes - 1; k >= 0; k--){
+                if(left[k] != -1){
+                    int a = nodeComponent[left[k]];
+                    nodeComponent[k] = a == nodeComponent[left[k] + 1] ? a : -1;
+                    continue;
+                }
+                int shared = positionComponent[start[k]];
+                for(int p = start[k] + 1; p < end[k] && shared != -1; p++){
+                    if(positionComponent[p] != shared) shared = -1;
+                }
+                nodeComponent[k] = shared;
+            }
+        }
+
+        //Searches the tree for points in other components than the one at position p, offering each to its
+        //component. Nodes wholly inside the component, or whose box is farther than the best edge the component
+        //already has, are skipped
+        private void nearestForeign(int p){
+            int root = positionComponent[p];
+            double qx = px[p], qy = py[p];
+            int top = 0;
+            stack[top] = 0;
+            stackDistance[top++] = 0.0;
+            while(top > 0){
+                int k = stack[--top];
+                if(nodeComponent[k] == root || stackDistance[top] > bestLength[root]) continue;
+                int child = left[k];
+                if(child == -1){
+                    for(int q = start[k]; q < end[k]; q++){
+                        if(positionComponent[q] == root) continue;
+                        double dx = qx - px[q];
+                        double dy = qy - py[q];
+                        double length = dx * dx + dy * dy;
+                        if(length <= bestLength[root] && lighter(length, order[p], order[q], bestLength[root], bestFrom[root], bestTo[root])){
+                            bestLength[root] = length;
+                            bestFrom[root] = order[p];
+                            bestTo[root] = order[q];
+                        }
+                    }
+                    continue;
+                }
+                //the nearer child goes on top, so it is searched first and tightens the bound for the other
+                double near = boxDistance(qx, qy, child);
+                double far = boxDistance(qx, qy, child + 1);
+                int nearChild = child;
+                if(far < near){
+                    double swap = near;
+                    near = far;
+                    far = swap;
+                    nearChild = child + 1;
+                }
+                stack[top] = nearChild == child ? child + 1 : child;
+                stackDistance[top++] = far;
+                stack[top] = nearChild;
+                stackDistance[top++] = near;
+            }
+        }
+
+        //The squared distance from (qx, qy) to the box of node k, 0 if it is inside
+        private double boxDistance(double qx, double qy, int k){
+            double dx = Math.max(Math.max(minX[k] - qx, qx - maxX[k]), 0.0);
+            double dy = Math.max(Math.max(minY[k] - qy, qy - maxY[k]), 0.0);
+            return dx * dx + dy * dy;
+        }
+
+        //Whether edge (a, b) comes before (c, d), by length and then by endpoints, so equal lengths can't make a cycle
+        private static boolean lighter(double ab, int a, int b, double cd, int c, int d){
+            if(c == -1 || ab != cd) return ab < cd || c == -1;
+            int lowAB = Math.min(a, b);
+            int lowCD = Math.min(c, d);
+            if(lowAB != lowCD) return lowAB < lowCD;
+            return Math.max(a, b) < Math.max(c, d);
+        }
+    }
+}
@@ -5,10 +5,12 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @SuppressWarnings("unchecked")
 public class Graph<V, E> {
@@ -32,6 +34,12 @@ public class Graph<V, E> {
          */
         private Map<Vertex<V, E>, Edge<V, E>> edgesOut;
 
+        /**
+         * The position of this vertex in its graph's verticesOrdered, or -1 if it
+         * has not been added to a graph.
+         */
+        int id = -1;
+
         /**
          * Constructs a vertex without any data.
          */
@@ -45,9 +53,40 @@ public class Graph<V, E> {
          * @param data the data to be stored within this vertex
          */
         public Vertex(V data) {
+            this(data, false);
+        }
+
+        /**
+         * Constructs a vertex with the specified data, whose edge maps can be
+         * updated from several threads at once if {@code concurrent}.
+         * 
+         * @param data       the data to be stored within this vertex
+         * @param concurrent whether edges may be added to this vertex concurrently
+         */
+        Vertex(V data, boolean concurrent) {
             this.data = data;
-            edgesIn = new HashMap<Vertex<V, E>, Edge<V, E>>();
-            edgesOut = new HashMap<Vertex<V, E>, Edge<V, E>>();
+            if (concurrent) {
+                edgesIn = new ConcurrentHashMap<Vertex<V, E>, Edge<V, E>>();
+                edgesOut = new ConcurrentHashMap<Vertex<V, E>, Edge<V, E>>();
+            } else {
+                edgesIn = new HashMap<Vertex<V, E>, Edge<V, E>>();
+                edgesOut = new HashMap<Vertex<V, E>, Edge<V, E>>();
+            }
+        }
+
+        /**
+         * Returns the dense id of this vertex, which is its position in the
+         * graph's order, so that {@code g.getVertex(v.id()) == v}.
+         * 
+         * <p>
+         * Ids run from 0 to one less than the number of vertices, so algorithms can
+         * keep per-vertex state in arrays indexed by id. An id stays the same until
+         * a vertex is removed, when the last vertex takes over the removed id.
+         * 
+         * @return the dense id of this vertex, or -1 if it is not in a graph.
+         */
+        public int id() {
+            return id;
         }
 
         public String toString() {
@@ -201,6 +240,18 @@ public class Graph<V, E> {
             return new ArrayList<Vertex<V, E>>(Arrays.asList(vertices));
         }
 
+        /**
+         * Returns {@code vertices().get(i)} without copying the endpoints into a new
+         * list.
+         * 
+         * @param i 0 for the first endpoint (the source, if directed) or 1 for the
+         *          second (the target, if directed)
+         * @return the specified endpoint of this edge.
+         */
+        public Vertex<V, E> endpoint(int i) {
+            return vertices[i];
+        }
+
         /**
          * Returns whether this edge is directed.
          * 
@@ -261,9 +312,10 @@ public class Graph<V, E> {
             Edge<?, ?> edge = (Edge<?, ?>) o;
             if (directed != edge.isDirected())
                 return false;
-            if (directed)
-                return source().equals(edge.source()) && target().equals(edge.target());
-            return vertices().containsAll(edge.vertices()) && edge.vertices().containsAll(vertices());
+            Vertex<?, ?>[] others = edge.vertices;
+            if (vertices[0].equals(others[0]) && vertices[1].equals(others[1]))
+                return true;
+            return !directed && vertices[0].equals(others[1]) && vertices[1].equals(others[0]);
         }
 
         public int hashCode() {
@@ -279,11 +331,11 @@ public class Graph<V, E> {
          *         {@code null} if the specified vertex is not an endpoint of this edge.
          */
         public Vertex<V, E> other(Vertex<V, E> vertex) {
-            if (!vertices().contains(vertex))
-                return null;
             if (vertices[0].equals(vertex))
                 return vertices[1];
-            return vertices[0];
+            if (vertices[1].equals(vertex))
+                return vertices[0];
+            return null;
         }
 
         public String toString() {
@@ -377,10 +429,23 @@ public class Graph<V, E> {
         }
     }
 
+    /**
+     * The set implementations a graph can keep its vertices and edges in.
+     * HASH_SET is the chained {@link HashSet}, OPEN_HASH_SET the open addressing
+     * {@link OpenHashSet}, and CONCURRENT the lock-striped
+     * {@link ConcurrentHashSet}, which lets several threads add vertices and
+     * edges at the same time.
+     */
+    public enum SetKind {
+        HASH_SET,
+        OPEN_HASH_SET,
+        CONCURRENT
+    }
+
     /**
      * The vertices that comprise this graph.
      */
-    protected HashSet<Vertex<V, E>> vertices;
+    protected Deque<Vertex<V, E>> vertices;
     /**
      * An ArrayList containing the vertices of this edge for fast lookup by order
      * entered.
@@ -389,15 +454,52 @@ public class Graph<V, E> {
     /**
      * The edges that comprise this graph.
      */
-    protected HashSet<Edge<V, E>> edges;
+    protected Deque<Edge<V, E>> edges;
+    /**
+     * True if vertices and edges may be added from several threads at once.
+     */
+    private final boolean concurrent;
 
     /**
      * Creates an empty graph.
      */
     public Graph() {
-        vertices = new HashSet<Vertex<V, E>>();
+        this(SetKind.HASH_SET);
+    }
+
+    /**
+     * Creates an empty graph that keeps its vertices and edges in the specified
+     * kind of set.
+     * 
+     * <p>
+     * With {@code SetKind.CONCURRENT}, {@code addVertex} and {@code addEdge} may be
+     * called from several threads at once, as long as the endpoints of the edges
+     * were created by this graph's {@code addVertex}. Vertices added concurrently
+     * get their positions in the order they reach {@code verticesOrdered}, and
+     * reading the graph should wait until every thread is done adding.
+     * {@code getVertex} and the {@code addEdge} overloads that take positions
+     * read {@code verticesOrdered} under the same lock that adds and removes
+     * vertices, but a position names whichever vertex holds it at that moment,
+     * which changes when another thread removes a vertex.
+     * 
+     * @param kind the set implementation to use
+     */
+    public Graph(SetKind kind) {
+        concurrent = kind == SetKind.CONCURRENT;
+        switch (kind) {
+            case OPEN_HASH_SET:
+                vertices = new OpenHashSet<Vertex<V, E>>();
+                edges = new OpenHashSet<Edge<V, E>>();
+                break;
+            case CONCURRENT:
+                vertices = new ConcurrentHashSet<Vertex<V, E>>();
+                edges = new ConcurrentHashSet<Edge<V, E>>();
+                break;
+            default:
+                vertices = new HashSet<Vertex<V, E>>();
+                edges = new HashSet<Edge<V, E>>();
+        }
         verticesOrdered = new ArrayList<Vertex<V, E>>();
-        edges = new HashSet<Edge<V, E>>();
     }
 
     /**
@@ -443,10 +545,19 @@ public class Graph<V, E> {
      * Returns the vertex created at the specified index (so {@code getVertex(0)} is
      * the first vertex created, {@code getVertex(1)} is the second, etc.).
      * 
+     * <p>
+     * If this graph is concurrent, the lookup takes the lock that adds and
+     * removes vertices, so it never sees {@code verticesOrdered} mid-update.
+     * 
      * @param index the position of the vertex to be returned
      * @return the vertex created at the specified index.
      */
     public Vertex<V, E> getVertex(int index) {
+        if (concurrent) {
+            synchronized (verticesOrdered) {
+                return verticesOrdered.get(index);
+            }
+        }
         return verticesOrdered.get(index);
     }
 
@@ -506,12 +617,51 @@ public class Graph<V, E> {
      * @return a new vertex with the specified data.
      */
     public Vertex<V, E> addVertex(V data) {
-        Vertex<V, E> newV = new Vertex<V, E>(data);
+        Vertex<V, E> newV = new Vertex<V, E>(data, concurrent);
         vertices.add(newV);
-        verticesOrdered.add(newV);
+        addOrdered(newV);
         return newV;
     }
 
+    /**
+     * Appends the specified vertex to verticesOrdered, one thread at a time if
+     * this graph is concurrent.
+     */
+    private void addOrdered(Vertex<V, E> vertex) {
+        if (concurrent) {
+            synchronized (verticesOrdered) {
+                vertex.id = verticesOrdered.size();
+                verticesOrdered.add(vertex);
+            }
+        } else {
+            vertex.id = verticesOrdered.size();
+            verticesOrdered.add(vertex);
+        }
+    }
+
+    /**
+     * Removes the specified vertex from verticesOrdered by moving the last vertex
+     * into its position, one thread at a time if this graph is concurrent.
+     */
+    private void removeOrdered(Vertex<V, E> vertex) {
+        if (concurrent) {
+            synchronized (verticesOrdered) {
+                swapRemove(vertex);
+            }
+        } else {
+            swapRemove(vertex);
+        }
+    }
+
+    private void swapRemove(Vertex<V, E> vertex) {
+        Vertex<V, E> last = verticesOrdered.remove(verticesOrdered.size() - 1);
+        if (last != vertex) {
+            verticesOrdered.set(vertex.id, last);
+            last.id = vertex.id;
+        }
+        vertex.id = -1;
+    }
+
     /**
      * Adds the specified edge to the graph.
      * 
@@ -525,10 +675,11 @@ public class Graph<V, E> {
     public boolean addEdge(Edge<V, E> edge) {
         if (edges.add(edge)) {
             for (Vertex<V, E> vertex : edge.vertices()) {
-                vertices.add(vertex);
+                if (vertices.add(vertex))
+                    addOrdered(vertex);
             }
             if (edge.isDirected()) {
-                edge.source().edgesOut.put(edge.source(), edge);
+                edge.source().edgesOut.put(edge.target(), edge);
                 edge.target().edgesIn.put(edge.source(), edge);
             } else {
                 for (Vertex<V, E> vertex : edge.vertices()) {
@@ -838,6 +989,94 @@ public class Graph<V, E> {
         return null;
     }
 
+    /**
+     * Removes the specified edge from the graph.
+     * 
+     * <p>
+     * Takes expected constant time. The endpoints of the edge stay in the graph.
+     * 
+     * @param edge the edge to be removed
+     * @return true if this edge was in the graph.
+     */
+    public boolean removeEdge(Edge<V, E> edge) {
+        if (!edges.remove(edge))
+            return false;
+        Vertex<V, E> u = edge.vertices[0];
+        Vertex<V, E> v = edge.vertices[1];
+        u.edgesOut.remove(v, edge);
+        v.edgesIn.remove(u, edge);
+        if (!edge.isDirected()) {
+            u.edgesIn.remove(v, edge);
+            v.edgesOut.remove(u, edge);
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns the edge between the vertices {@code u} and {@code v},
+     * as found by {@code getEdge(u, v)}, or returns {@code null} if no such edge
+     * exists.
+     * 
+     * @param u the source vertex
+     * @param v the target vertex
+     * @return the edge removed, or {@code null} if no such edge exists.
+     */
+    public Edge<V, E> removeEdge(Vertex<V, E> u, Vertex<V, E> v) {
+        Edge<V, E> edge = getEdge(u, v);
+        if (edge != null)
+            removeEdge(edge);
+        return edge;
+    }
+
+    /**
+     * Removes and returns the edge between the vertices returned by
+     * {@code getVertex(i)} and {@code getVertex(j)}, or returns {@code null} if no
+     * such edge exists.
+     * 
+     * @param i the position of the first vertex
+     * @param j the position of the second vertex
+     * @return the edge removed, or {@code null} if no such edge exists.
+     */
+    public Edge<V, E> removeEdge(int i, int j) {
+        return removeEdge(getVertex(i), getVertex(j));
+    }
+
+    /**
+     * Removes the specified vertex and every edge touching it from the graph.
+     * 
+     * <p>
+     * Takes time proportional to the degree of the vertex. To keep
+     * {@code getVertex} constant time, the last vertex in the order takes the
+     * position of the removed one, so {@code getVertex(i)} returns a different
+     * vertex afterwards for the removed position only.
+     * 
+     * @param vertex the vertex to be removed
+     * @return true if this vertex was in the graph.
+     */
+    public boolean removeVertex(Vertex<V, E> vertex) {
+        if (!vertices.remove(vertex))
+            return false;
+        ArrayList<Edge<V, E>> touching = new ArrayList<Edge<V, E>>(vertex.edgesOut.values());
+        touching.addAll(vertex.edgesIn.values());
+        for (Edge<V, E> edge : touching)
+            removeEdge(edge);
+        removeOrdered(vertex);
+        return true;
+    }
+
+    /**
+     * Removes and returns the vertex returned by {@code getVertex(index)}, along
+     * with every edge touching it.
+     * 
+     * @param index the position of the vertex to be removed
+     * @return the vertex removed.
+     */
+    public Vertex<V, E> removeVertex(int index) {
+        Vertex<V, E> vertex = getVertex(index);
+        removeVertex(vertex);
+        return vertex;
+    }
+
     /**
      * Returns the adjacency matrix of this graph.
      * 
@@ -866,21 +1105,29 @@ public class Graph<V, E> {
      */
     public Graph<V, E> reverse() {
         Graph<V, E> newGraph = new Graph<V, E>();
-        HashMap<Vertex<V, E>, Integer> map = new HashMap<Vertex<V, E>, Integer>();
         for (int i = 0; i < vertices.size(); i++) {
             newGraph.addVertex(getVertex(i).data);
-            map.put(getVertex(i), i);
         }
         for (int i = 0; i < vertices.size(); i++) {
             for (Edge<V, E> edge : getVertex(i).edgesOut()) {
                 if (edge instanceof WeightedEdge)
-                    newGraph.addEdge(map.get(edge.other(getVertex(i))), i, ((WeightedEdge<V, E>) edge).weight,
+                    newGraph.addEdge(edge.other(getVertex(i)).id, i, ((WeightedEdge<V, E>) edge).weight,
                             edge.isDirected(), edge.data);
                 else
-                    newGraph.addEdge(map.get(edge.other(getVertex(i))), i, edge.isDirected(), edge.data);
+                    newGraph.addEdge(edge.other(getVertex(i)).id, i, edge.isDirected(), edge.data);
 
             }
         }
         return newGraph;
     }
+
+    /**
+     * Returns an immutable compressed sparse row snapshot of this graph, with
+     * vertices numbered by their position in {@code verticesOrdered}.
+     *
+     * @return a compressed sparse row snapshot of this graph.
+     */
+    public CsrGraph<V, E> freeze() {
+        return new CsrGraph<V, E>(this);
+    }
 }
\ No newline at end of file
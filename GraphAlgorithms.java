@@ -5,7 +5,6 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -13,8 +12,10 @@ import java.util.Map;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.PriorityQueue;
-import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleBiFunction;
 import java.util.*;
 
 
@@ -31,40 +32,51 @@ public class GraphAlgorithms{
         BufferedReader br = new BufferedReader(fr);
 
         Graph<String, Object> newGraph = new Graph<>();
-        //Hashmap that maps strings to graph vertices
+        //the vertex of each city by its name, so every row naming a city reaches the same vertex
         HashMap<String, Graph.Vertex<String, Object>> cities = new HashMap<>();
 
         br.readLine();
         String line = br.readLine();
         while(line != null){
             String[] contents = line.split(",");
-            String state1 = contents[1];
-            String state2 = contents[3];
-            
-            if(!cities.containsKey(state1)){
-                cities.put(state1, newGraph.addVertex(state1));
-            }
-            // if(!cities.containsKey(state1)){
-            //    // System.out.println("unsuccessful1");
-            // }
+            String city1 = contents[1];
+            String city2 = contents[3];
 
-            if(!cities.containsKey(state2)){
-                cities.put(state2, newGraph.addVertex(state2));
-              //  System.out.println("putted");
+            Graph.Vertex<String, Object> vertex1 = cities.get(city1);
+            if(vertex1 == null){
+                vertex1 = newGraph.addVertex(city1);
+                cities.put(city1, vertex1);
+            }
+            Graph.Vertex<String, Object> vertex2 = cities.get(city2);
+            if(vertex2 == null){
+                vertex2 = newGraph.addVertex(city2);
+                cities.put(city2, vertex2);
             }
-            // if(!cities.containsKey(state2)){
-            // //    System.out.println("unsuccessful2");
-            // }
 
             double miles = Double.parseDouble(contents[4]);
             int intMiles = (int) miles;
-            newGraph.addEdge(cities.get(state1), cities.get(state2), intMiles);
+            newGraph.addEdge(vertex1, vertex2, intMiles);
             line = br.readLine();
         }
 
         return newGraph;
     }
 
+    /**
+     * The priority queues that Dijkstra's algorithm can run on.
+     * INDEXED_HEAP holds each vertex at most once and lowers its key in place, LAZY_HEAP pushes a new entry whenever a
+     * distance improves and skips the outdated ones when they are polled.
+     */
+    public enum DijkstraEngine{
+        INDEXED_HEAP,
+        LAZY_HEAP
+    }
+
+    /**
+     * The engine used by shortestPaths when none is given.
+     */
+    public static DijkstraEngine dijkstraEngine = DijkstraEngine.INDEXED_HEAP;
+
     /**
      * @param <V>
      * @param <E>
@@ -73,42 +85,379 @@ public class GraphAlgorithms{
      * @return a hashmap of each vertex mapped to the distance of the shortest path to get to it
      */
     public static <V, E> HashMap<Graph.Vertex<V, E>, Double> shortestPaths(Graph<V, E> g, Graph.Vertex<V, E> source){
-        HashMap<Graph.Vertex<V, E>, Double> distances = new HashMap<>();
-        //setting the hashmap with all the verticies as keys and their values to all be infinity
-        for(Graph.Vertex<V, E> vertex : g.vertices){
-            distances.put(vertex, Double.POSITIVE_INFINITY);
-        } distances.put(source, 0.0); //except source's value is 0
-
-        PriorityQueue<Graph.Vertex<V, E>> queue = new PriorityQueue<>(new Comparator<Graph.Vertex<V, E>>(){
-            @Override
-            //new queue of vertices prioritizing by shorter distances
-            public int compare(Graph.Vertex<V, E> o1, Graph.Vertex<V, E> o2){
-                return distances.get(o1).compareTo(distances.get(o2));
-            }
-        });
+        return shortestPaths(g, source, dijkstraEngine);
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param engine which priority queue to use
+     * @return a hashmap of each vertex mapped to the distance of the shortest path to get to it
+     */
+    public static <V, E> HashMap<Graph.Vertex<V, E>, Double> shortestPaths(Graph<V, E> g, Graph.Vertex<V, E> source, DijkstraEngine engine){
+        int start = source.id();
+        double[] distances = engine == DijkstraEngine.LAZY_HEAP ? lazyDijkstra(g, start) : indexedDijkstra(g, start);
 
-        for(Graph.Vertex<V, E> vertex : g.vertices){
-            queue.offer(vertex);
+        HashMap<Graph.Vertex<V, E>, Double> output = new HashMap<>();
+        for(int i = 0; i < distances.length; i++){
+            output.put(g.verticesOrdered.get(i), distances[i]);
         }
+        return output;
+    }
+
+    //Dijkstra's on an indexed heap, returning distances by vertex id
+    private static <V, E> double[] indexedDijkstra(Graph<V, E> g, int start){
+        int n = g.verticesOrdered.size();
+        //distances by vertex id, all infinity except the source
+        double[] distances = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[start] = 0.0;
+
+        //heap of positions keyed by distance, so a shorter distance is an O(log V) decrease-key
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        queue.insert(start, 0.0);
 
         while(!queue.isEmpty()){ //O(V) where V is the number of vertices
-            //Poll fron the queue. For each edge attached to that vertex, reassign the distance to be
-            Graph.Vertex<V, E> cur = queue.poll(); //O(log V)
-
-            for(Graph.Edge<V,E> edgeOut : cur.edgesOut()){ //O(V)
-                Graph.Vertex<V, E> next = edgeOut.other(cur);
-
-                double curDistToNext = distances.get(next);
-                double newDist = distances.get(cur) + ((Graph.WeightedEdge<V, E>) edgeOut).weight;
-                if(newDist < curDistToNext){
-                    distances.put(next, newDist);
-                    queue.remove(next); //O(log V) for java, but could be O(1) if implemented better
-                    queue.offer(next);
+            //Poll the closest vertex. Its distance is final, so relax every edge leaving it
+            int cur = queue.poll(); //O(log V)
+            Graph.Vertex<V, E> curVertex = g.verticesOrdered.get(cur);
+
+            for(Graph.Edge<V,E> edgeOut : curVertex.edgesOut()){ //O(E) over the whole run
+                int next = edgeOut.other(curVertex).id();
+                double newDist = distances[cur] + ((Graph.WeightedEdge<V, E>) edgeOut).weight;
+                if(newDist < distances[next]){
+                    distances[next] = newDist;
+                    queue.offer(next, newDist); //O(log V)
+                }
+            }
+        }
+        return distances;
+    }
+
+    //Dijkstra's with lazy deletion, returning distances by vertex id
+    private static <V, E> double[] lazyDijkstra(Graph<V, E> g, int start){
+        int n = g.verticesOrdered.size();
+        double[] distances = new double[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[start] = 0.0;
+        boolean[] settled = new boolean[n];
+
+        //entries are only pushed when a vertex is reached, so the heap stays the size of the explored frontier
+        PairMinHeap queue = new PairMinHeap();
+        queue.push(start, 0.0);
+
+        while(!queue.isEmpty()){
+            int cur = queue.poll();
+            //an older, longer entry for a vertex that was already settled
+            if(settled[cur]) continue;
+            settled[cur] = true;
+            Graph.Vertex<V, E> curVertex = g.verticesOrdered.get(cur);
+
+            for(Graph.Edge<V,E> edgeOut : curVertex.edgesOut()){
+                int next = edgeOut.other(curVertex).id();
+                double newDist = distances[cur] + ((Graph.WeightedEdge<V, E>) edgeOut).weight;
+                if(newDist < distances[next]){
+                    distances[next] = newDist;
+                    queue.push(next, newDist);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Dijkstra's on a compressed sparse row snapshot, reading weights straight out of its arrays.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source position of the source
+     * @return the distance of the shortest path to each vertex by position, infinity if it can't be reached
+     */
+    public static <V, E> double[] shortestPaths(CsrGraph<V, E> g, int source){
+        double[] distances = new double[g.n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[source] = 0.0;
+        IndexedMinHeap queue = new IndexedMinHeap(g.n);
+        queue.insert(source, 0.0);
+        while(!queue.isEmpty()){
+            int cur = queue.poll();
+            for(int slot = g.offset(cur); slot < g.offset(cur + 1); slot++){
+                int next = g.target(slot);
+                double newDist = distances[cur] + g.weight(slot);
+                if(newDist < distances[next]){
+                    distances[next] = newDist;
+                    queue.offer(next, newDist);
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * A shortest route between two vertices.
+     */
+    public static class Route<V, E>{
+        /**
+         * The total weight of the route, or infinity if the target can't be reached.
+         */
+        public final double distance;
+        /**
+         * The edges of the route in order from source to target, or null if the target can't be reached.
+         */
+        public final List<Graph.Edge<V, E>> edges;
+        /**
+         * How many vertices the search settled before it found the route.
+         */
+        public final int settled;
+
+        public Route(double distance, List<Graph.Edge<V, E>> edges, int settled){
+            this.distance = distance;
+            this.edges = edges;
+            this.settled = settled;
+        }
+
+        public String toString(){
+            return distance + " " + edges;
+        }
+    }
+
+    /**
+     * The state of a point to point search. Vertices get a local id the first time the search reaches them, so the
+     * work done is proportional to the part of the graph explored rather than to the size of the whole graph.
+     */
+    private static class SearchSpace<V, E>{
+        HashMap<Graph.Vertex<V, E>, Integer> ids = new HashMap<>();
+        ArrayList<Graph.Vertex<V, E>> vertices = new ArrayList<>();
+        ArrayList<Graph.Edge<V, E>> prevEdges = new ArrayList<>();
+        double[] distances = new double[16];
+        boolean[] settled = new boolean[16];
+        PairMinHeap queue = new PairMinHeap();
+
+        //the local id of vertex, giving it one with an infinite distance if it hasn't been reached yet
+        int id(Graph.Vertex<V, E> vertex){
+            Integer id = ids.get(vertex);
+            if(id != null) return id;
+            int newId = vertices.size();
+            if(newId == distances.length){
+                distances = Arrays.copyOf(distances, newId * 2);
+                settled = Arrays.copyOf(settled, newId * 2);
+            }
+            distances[newId] = Double.POSITIVE_INFINITY;
+            ids.put(vertex, newId);
+            vertices.add(vertex);
+            prevEdges.add(null);
+            return newId;
+        }
+
+        //the distance to vertex found so far, or infinity if it hasn't been reached
+        double distance(Graph.Vertex<V, E> vertex){
+            Integer id = ids.get(vertex);
+            return id == null ? Double.POSITIVE_INFINITY : distances[id];
+        }
+
+        //the edges from the root of this search to vertex, following the edge each vertex was last reached by
+        List<Graph.Edge<V, E>> pathTo(Graph.Vertex<V, E> vertex){
+            List<Graph.Edge<V, E>> path = new ArrayList<Graph.Edge<V, E>>();
+            for(Graph.Edge<V, E> edge = prevEdges.get(ids.get(vertex)); edge != null; edge = prevEdges.get(ids.get(vertex))){
+                path.add(edge);
+                vertex = edge.other(vertex);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+
+    /**
+     * Dijkstra's from source that stops as soon as target is settled, instead of finding the distance to every
+     * vertex like shortestPaths.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param target
+     * @return the distance from source to target and the edges of a shortest route between them
+     */
+    public static <V, E> Route<V, E> shortestPath(Graph<V, E> g, Graph.Vertex<V, E> source, Graph.Vertex<V, E> target){
+        return aStar(g, source, target, null);
+    }
+
+    /**
+     * Vertex data that knows where it is on the globe.
+     */
+    public interface Located{
+        /**
+         * @return latitude in degrees
+         */
+        double latitude();
+
+        /**
+         * @return longitude in degrees
+         */
+        double longitude();
+    }
+
+    /**
+     * Mean radius of the Earth in miles, the unit readData uses for edge weights.
+     */
+    public static final double EARTH_RADIUS_MILES = 3958.8;
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @return a heuristic giving the great-circle distance in miles between two vertices whose data is Located
+     */
+    public static <V extends Located, E> ToDoubleBiFunction<Graph.Vertex<V, E>, Graph.Vertex<V, E>> greatCircleHeuristic(){
+        return greatCircleHeuristic(EARTH_RADIUS_MILES);
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param radius radius of the sphere, in the same units as the edge weights
+     * @return a heuristic giving the great-circle distance between two vertices whose data is Located
+     */
+    public static <V extends Located, E> ToDoubleBiFunction<Graph.Vertex<V, E>, Graph.Vertex<V, E>> greatCircleHeuristic(double radius){
+        return (u, v) -> {
+            //haversine formula
+            double lat1 = Math.toRadians(u.data.latitude());
+            double lat2 = Math.toRadians(v.data.latitude());
+            double sinLat = Math.sin((lat2 - lat1) / 2);
+            double sinLong = Math.sin(Math.toRadians(v.data.longitude() - u.data.longitude()) / 2);
+            double h = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLong * sinLong;
+            return 2 * radius * Math.asin(Math.min(1.0, Math.sqrt(h)));
+        };
+    }
+
+    /**
+     * A* search: Dijkstra's from source ordered by distance so far plus heuristic's estimate of the distance left
+     * to target, stopping as soon as target is settled.
+     * 
+     * <p>
+     * The route is a shortest one as long as the heuristic is consistent: it never overestimates the distance
+     * between two vertices, and h(u, target) is at most the weight of an edge from u to v plus h(v, target). The
+     * great-circle distance is consistent whenever no edge is shorter than the straight line between its ends.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param target
+     * @param heuristic estimated distance from its first argument to its second, or null for plain Dijkstra's
+     * @return the distance from source to target, the edges of a shortest route between them and how many vertices
+     *         were settled
+     */
+    public static <V, E> Route<V, E> aStar(Graph<V, E> g, Graph.Vertex<V, E> source, Graph.Vertex<V, E> target,
+            ToDoubleBiFunction<Graph.Vertex<V, E>, Graph.Vertex<V, E>> heuristic){
+        SearchSpace<V, E> space = new SearchSpace<V, E>();
+        space.distances[space.id(source)] = 0.0;
+        space.queue.push(space.id(source), 0.0);
+        int settled = 0;
+
+        while(!space.queue.isEmpty()){
+            int cur = space.queue.poll();
+            if(space.settled[cur]) continue;
+            space.settled[cur] = true;
+            settled++;
+            Graph.Vertex<V, E> curVertex = space.vertices.get(cur);
+            //the first time target is polled its distance is final
+            if(curVertex == target) return new Route<V, E>(space.distances[cur], space.pathTo(target), settled);
+
+            for(Graph.Edge<V,E> edgeOut : curVertex.edgesOut()){
+                Graph.Vertex<V, E> nextVertex = edgeOut.other(curVertex);
+                int next = space.id(nextVertex);
+                double newDist = space.distances[cur] + ((Graph.WeightedEdge<V, E>) edgeOut).weight;
+                if(newDist < space.distances[next]){
+                    space.distances[next] = newDist;
+                    space.prevEdges.set(next, edgeOut);
+                    space.queue.push(next, heuristic == null ? newDist : newDist + heuristic.applyAsDouble(nextVertex, target));
+                }
+            }
+        }
+        return new Route<V, E>(Double.POSITIVE_INFINITY, null, settled);
+    }
+
+    /**
+     * Dijkstra's from source along edgesOut and from target along edgesIn at the same time, always growing whichever
+     * side has the closer frontier. Stops once the two frontiers together are at least as far as the best route
+     * seen through a vertex reached from both sides, which is then a shortest route.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param target
+     * @return the distance from source to target and the edges of a shortest route between them
+     */
+    public static <V, E> Route<V, E> bidirectionalShortestPath(Graph<V, E> g, Graph.Vertex<V, E> source, Graph.Vertex<V, E> target){
+        SearchSpace<V, E> forward = new SearchSpace<V, E>();
+        SearchSpace<V, E> backward = new SearchSpace<V, E>();
+        forward.distances[forward.id(source)] = 0.0;
+        forward.queue.push(forward.id(source), 0.0);
+        backward.distances[backward.id(target)] = 0.0;
+        backward.queue.push(backward.id(target), 0.0);
+
+        //shortest route found so far and the vertex where its two halves meet
+        double best = source == target ? 0.0 : Double.POSITIVE_INFINITY;
+        Graph.Vertex<V, E> meet = source;
+        int settled = 0;
+
+        while(!forward.queue.isEmpty() && !backward.queue.isEmpty()){
+            if(forward.queue.peekKey() + backward.queue.peekKey() >= best) break;
+
+            boolean isForward = forward.queue.peekKey() <= backward.queue.peekKey();
+            SearchSpace<V, E> space = isForward ? forward : backward;
+            SearchSpace<V, E> other = isForward ? backward : forward;
+            int cur = space.queue.poll();
+            if(space.settled[cur]) continue;
+            space.settled[cur] = true;
+            settled++;
+            Graph.Vertex<V, E> curVertex = space.vertices.get(cur);
+
+            for(Graph.Edge<V,E> edge : isForward ? curVertex.edgesOut() : curVertex.edgesIn()){
+                Graph.Vertex<V, E> nextVertex = edge.other(curVertex);
+                int next = space.id(nextVertex);
+                double newDist = space.distances[cur] + ((Graph.WeightedEdge<V, E>) edge).weight;
+                if(newDist < space.distances[next]){
+                    space.distances[next] = newDist;
+                    space.prevEdges.set(next, edge);
+                    space.queue.push(next, newDist);
+                    //a route through nextVertex, if the other side has reached it too
+                    double through = newDist + other.distance(nextVertex);
+                    if(through < best){
+                        best = through;
+                        meet = nextVertex;
+                    }
                 }
             }
-        } return distances;
+        }
+        if(best == Double.POSITIVE_INFINITY) return new Route<V, E>(best, null, settled);
+
+        List<Graph.Edge<V, E>> edges = forward.pathTo(meet);
+        List<Graph.Edge<V, E>> back = backward.pathTo(meet);
+        Collections.reverse(back);
+        edges.addAll(back);
+        return new Route<V, E>(best, edges, settled);
+    }
+
+    /**
+     * The depth-first searches that can find the Ham Cycles.
+     * VERTEX_LIST walks a list of vertex objects, BITMASK walks vertex positions with a visited bitmask and only
+     * builds edges for the cycles it reports.
+     */
+    public enum HamEngine{
+        VERTEX_LIST,
+        BITMASK
     }
 
+    /**
+     * The engine used by allHamCycles and forEachHamCycle when none is given, and by the ENUMERATION mode of minTSP.
+     */
+    public static HamEngine hamEngine = HamEngine.BITMASK;
+
     /**
      * @param <V>
      * @param <E>
@@ -117,35 +466,136 @@ public class GraphAlgorithms{
      * @return a collection of Ham Cycle solutions, which are lists of edges of visiting all the vertices and returning to the same point
      */
     public static <V, E> Collection<List<Graph.Edge<V, E>>> allHamCycles(Graph<V, E> g, Graph.Vertex<V, E> start){
+        return allHamCycles(g, start, hamEngine);
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param start
+     * @param engine which search to use
+     * @return a collection of Ham Cycle solutions, which are lists of edges of visiting all the vertices and returning to the same point
+     */
+    public static <V, E> Collection<List<Graph.Edge<V, E>>> allHamCycles(Graph<V, E> g, Graph.Vertex<V, E> start, HamEngine engine){
         Collection<List<Graph.Edge<V, E>>> output = new ArrayList<>();
-        List<Graph.Vertex<V, E>> curPath = new ArrayList<Graph.Vertex<V, E>>();
-        curPath.add(start);
-        allHamCycles(g, output, curPath);
+        forEachHamCycle(g, start, engine, output::add);
         return output;
     }
 
     //Helper method
     public static <V, E> Collection<List<Graph.Edge<V, E>>> allHamCycles(Graph<V, E> g, Collection<List<Graph.Edge<V, E>>> output, List<Graph.Vertex<V, E>> curPath){
+        forEachHamCycle(g, curPath, output::add);
+        return output;
+    }
+
+    /**
+     * Hands each Ham Cycle starting at start to visitor as soon as it is found, instead of collecting them all.
+     * Only the current path is kept in memory, so callers that keep a running best use constant memory beyond the
+     * recursion stack. The search stops as soon as visitor returns false, eg after the first k cycles or once a
+     * cheap enough cycle has been seen.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param start
+     * @param visitor called with each cycle as an ordered list of edges; returns whether to keep searching
+     * @return false if visitor stopped the search early, otherwise true
+     */
+    public static <V, E> boolean forEachHamCycle(Graph<V, E> g, Graph.Vertex<V, E> start, Predicate<List<Graph.Edge<V, E>>> visitor){
+        return forEachHamCycle(g, start, hamEngine, visitor);
+    }
+
+    /**
+     * forEachHamCycle with the search picked per call.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param start
+     * @param engine which search to use
+     * @param visitor called with each cycle as an ordered list of edges; returns whether to keep searching
+     * @return false if visitor stopped the search early, otherwise true
+     */
+    public static <V, E> boolean forEachHamCycle(Graph<V, E> g, Graph.Vertex<V, E> start, HamEngine engine, Predicate<List<Graph.Edge<V, E>>> visitor){
+        if(engine == HamEngine.BITMASK){
+            HamCycleSearch<V, E> search = new HamCycleSearch<V, E>(g, start);
+            return search.run((path, cost) -> visitor.test(search.edges(path)));
+        }
+        List<Graph.Vertex<V, E>> curPath = new ArrayList<Graph.Vertex<V, E>>();
+        curPath.add(start);
+        return forEachHamCycle(g, curPath, visitor);
+    }
+
+    //Helper method
+    private static <V, E> boolean forEachHamCycle(Graph<V, E> g, List<Graph.Vertex<V, E>> curPath, Predicate<List<Graph.Edge<V, E>>> visitor){
+        Graph.Vertex<V, E> last = curPath.get(curPath.size()-1);
         if(curPath.size() == g.vertices.size()){
-            List<Graph.Edge<V, E>> edges = new ArrayList<Graph.Edge<V, E>>();
-            for(Graph.Vertex<V, E> vertex : curPath){
-                Graph.Edge<V, E> curEdge = vertex.getEdgeTo(curPath.get((curPath.indexOf(vertex)+1) % curPath.size()));
-                edges.add(curEdge);
-            }
-            output.add(edges);
-            return output;
-        }
-        else{
-            Graph.Vertex<V, E> last = curPath.get(curPath.size()-1);
-            for(Graph.Vertex<V, E> neighbor : last.neighborsOut()){
-                if (curPath.contains(neighbor)) continue;
-                curPath.add(neighbor);
-                allHamCycles(g, output, curPath);
-                curPath.remove(neighbor);
+            //only a cycle if the last vertex can get back to the first
+            if(last.getEdgeTo(curPath.get(0)) == null) return true;
+            List<Graph.Edge<V, E>> edges = new ArrayList<Graph.Edge<V, E>>(curPath.size());
+            for(int i = 0; i < curPath.size(); i++){
+                edges.add(curPath.get(i).getEdgeTo(curPath.get((i+1) % curPath.size())));
             }
+            return visitor.test(edges);
         }
-        return output;
-    
+        for(Graph.Vertex<V, E> neighbor : last.neighborsOut()){
+            if (curPath.contains(neighbor)) continue;
+            curPath.add(neighbor);
+            boolean keepGoing = forEachHamCycle(g, curPath, visitor);
+            curPath.remove(curPath.size()-1);
+            if(!keepGoing) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The exact solvers that minTSP can use.
+     * ENUMERATION scans every Ham Cycle, HELD_KARP uses the bitmask dynamic program,
+     * BRANCH_AND_BOUND searches depth-first and prunes with spanning tree lower bounds,
+     * PARALLEL splits the Ham Cycle search across the common fork-join pool.
+     */
+    public enum TSPMode{
+        ENUMERATION,
+        HELD_KARP,
+        BRANCH_AND_BOUND,
+        PARALLEL
+    }
+
+    /**
+     * Default memory budget for the Held-Karp tables: half of the heap the JVM is allowed to grow to.
+     */
+    public static long heldKarpMemoryBudget = Runtime.getRuntime().maxMemory() / 2;
+
+    /**
+     * Held-Karp is the fastest exact solver while its tables fit in heldKarpMemoryBudget, which runs out somewhere
+     * past 25 vertices. Larger graphs go to branch and bound, which needs no tables but keeps the visited vertices in
+     * a 64 bit mask, so minTSP refuses graphs of more than 64 vertices. Use tspApprox for those.
+     *
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @return the mode minTSP uses on g when none is given
+     */
+    public static <V,E> TSPMode chooseTSPMode(Graph<V, E> g){
+        return chooseTSPMode(g.verticesOrdered.size());
+    }
+
+    /**
+     * The same choice as chooseTSPMode(Graph) for a compressed sparse row snapshot.
+     *
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @return the mode minTSP uses on g
+     */
+    public static <V,E> TSPMode chooseTSPMode(CsrGraph<V, E> g){
+        return chooseTSPMode(g.n);
+    }
+
+    //The mode for n vertices
+    private static TSPMode chooseTSPMode(int n){
+        return heldKarpFits(n, heldKarpMemoryBudget) ? TSPMode.HELD_KARP : TSPMode.BRANCH_AND_BOUND;
     }
 
     /**
@@ -154,149 +604,515 @@ public class GraphAlgorithms{
      * @param g
      * @param source
      * @return the smallest/cheapest Ham Cycle in the form of an ordered list of edges
+     * @throws IllegalArgumentException if the graph has more than 64 vertices, see chooseTSPMode
      */
     public static <V,E> List<Graph.Edge<V, E>> minTSP(Graph<V, E> g, Graph.Vertex<V, E> source){
-        double shortestSum = Double.POSITIVE_INFINITY;  
-        List<Graph.Edge<V, E>> shortestCycle = null;      
-        Collection<List<Graph.Edge<V, E>>> h = allHamCycles(g, g.getVertex(0));
-        for(List<Graph.Edge<V, E>> list : h){
+        return minTSP(g, source, chooseTSPMode(g));
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param mode which exact solver to use
+     * @return the smallest/cheapest Ham Cycle in the form of an ordered list of edges
+     */
+    public static <V,E> List<Graph.Edge<V, E>> minTSP(Graph<V, E> g, Graph.Vertex<V, E> source, TSPMode mode){
+        return minTSP(g, source, mode, null);
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param mode which exact solver to use
+     * @param progress called with the running bounds of a BRANCH_AND_BOUND solve every BranchAndBoundTSP.reportInterval
+     *                 nodes and once at the end; the other modes have no bounds to report and ignore it. May be null
+     * @return the smallest/cheapest Ham Cycle in the form of an ordered list of edges
+     */
+    public static <V,E> List<Graph.Edge<V, E>> minTSP(Graph<V, E> g, Graph.Vertex<V, E> source, TSPMode mode, Consumer<BranchAndBoundTSP.Stats> progress){
+        switch(mode){
+            case HELD_KARP:
+                return heldKarpTSP(g, source, heldKarpMemoryBudget);
+            case BRANCH_AND_BOUND:
+                return BranchAndBoundTSP.minTSP(g, source, progress);
+            case PARALLEL:
+                return ParallelTSP.minTSP(g, source, ForkJoinPool.commonPool());
+            default:
+                return enumerationTSP(g, source, hamEngine);
+        }
+    }
+
+    //Scans every Ham Cycle for the cheapest one, keeping only the running minimum. O(n!) time
+    private static <V,E> List<Graph.Edge<V, E>> enumerationTSP(Graph<V, E> g, Graph.Vertex<V, E> source, HamEngine engine){
+        class Best {
+            double shortestSum = Double.POSITIVE_INFINITY;
+            List<Graph.Edge<V, E>> shortestCycle = null;
+            int[] shortestPath = null;
+        }
+        Best best = new Best();
+        if(engine == HamEngine.BITMASK){
+            //the search sums the cost as it goes, so only the path of a new minimum is copied
+            HamCycleSearch<V, E> search = new HamCycleSearch<V, E>(g, source);
+            search.run((path, cost) -> {
+                if(cost<best.shortestSum){
+                    best.shortestSum = cost;
+                    best.shortestPath = path.clone();
+                }
+                return true;
+            });
+            return best.shortestPath == null ? null : search.edges(best.shortestPath);
+        }
+        forEachHamCycle(g, source, engine, cycle -> {
             double curSum = 0.0;
-            for (Graph.Edge<V, E> edge : list){
+            for (Graph.Edge<V, E> edge : cycle){
                 curSum += ((Graph.WeightedEdge<V, E>) edge).weight;
             }
-            if(curSum<shortestSum){
-                shortestSum =curSum;
-                shortestCycle = list;
+            if(curSum<best.shortestSum){
+                best.shortestSum = curSum;
+                best.shortestCycle = cycle;
+            }
+            return true;
+        });
+        return best.shortestCycle;
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param order every vertex of a graph, in the order to put them in the matrix
+     * @return a flat row-major matrix where [i*n + j] is the weight of the edge from order[i] to order[j],
+     *         or infinity if there is no such edge
+     */
+    static <V, E> double[] weightMatrix(List<Graph.Vertex<V, E>> order){
+        int n = order.size();
+        //position in order by vertex id
+        int[] index = new int[n];
+        for(int i = 0; i < n; i++) index[order.get(i).id()] = i;
+        double[] dist = new double[n * n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        for(int i = 0; i < n; i++){
+            Graph.Vertex<V, E> vertex = order.get(i);
+            for(Graph.Edge<V, E> edge : vertex.edgesOut()){
+                int j = index[edge.other(vertex).id()];
+                dist[i * n + j] = ((Graph.WeightedEdge<V, E>) edge).weight;
             }
         }
-        return shortestCycle;
+        return dist;
     }
 
     /**
+     * Held-Karp dynamic program over subsets of the vertices. cost[mask][j] is the cheapest path that leaves
+     * source, visits exactly the vertices in mask and ends at j. O(2^n * n^2) time and O(2^n * n) memory.
+     * 
      * @param <V>
      * @param <E>
      * @param g
-     * @return the minimal spanning tree of the graph where each vertex is connected in the shortest way possible
-     *         in the form of a collection of edges
+     * @param source
+     * @param memoryBudget the most bytes the dp tables are allowed to take up
+     * @return the smallest/cheapest Ham Cycle in the form of an ordered list of edges, or null if there is none
+     * @throws IllegalArgumentException if the tables for this graph would not fit in memoryBudget
      */
-    public static <V, E> Collection<Graph.Edge<V, E>> mst(Graph<V, E> g){
-        class Data {
-            double curDistance;
-            Graph.Vertex<V, E> prev;
-            Graph.Edge<V, E> prevEdge;
-            public Data(double dist, Graph.Vertex<V,E> vert){
-                curDistance = dist;
-                prev = vert;
-            }            
-        }
-
-        HashMap<Graph.Vertex<V,E>, Data> vertices = new HashMap<>();
-        Collection<Graph.Vertex<V, E>> used = new ArrayList<Graph.Vertex<V, E>>();
-        Collection<Graph.Edge<V, E>> mst = new ArrayList<Graph.Edge<V, E>>();
-
-        PriorityQueue<Graph.Vertex<V,E>> unused = new PriorityQueue<Graph.Vertex<V,E>>(new Comparator<Graph.Vertex<V,E>>(){
-            @Override
-            public int compare(Graph.Vertex<V,E> v1, Graph.Vertex<V,E> v2) {
-                double v1Dist = vertices.get(v1).curDistance;
-                double v2Dist = vertices.get(v2).curDistance;
-                if(v1Dist -v2Dist<0) return -1;
-                else if(v1Dist - v2Dist > 0) return 1;
-                else return 0;
-            }
-            });
+    public static <V,E> List<Graph.Edge<V, E>> heldKarpTSP(Graph<V, E> g, Graph.Vertex<V, E> source, long memoryBudget){
+        int n = g.verticesOrdered.size();
+        if(n < 2) return null;
+        int m = n - 1; //every vertex but source
+        checkHeldKarpBudget(n, memoryBudget);
+
+        //others[k] is the vertex at bit k of a mask, and source sits at index m
+        List<Graph.Vertex<V, E>> others = new ArrayList<>(n);
+        for(Graph.Vertex<V, E> vertex : g.verticesOrdered){
+            if(vertex != source) others.add(vertex);
+        }
+        if(others.size() != m) throw new IllegalArgumentException("source is not a vertex of g");
+        others.add(source);
+        int[] order = heldKarpOrder(weightMatrix(others), n);
+        if(order == null) return null;
+
+        List<Graph.Edge<V, E>> cycle = new ArrayList<Graph.Edge<V, E>>(n);
+        for(int i = 0; i < n; i++){
+            cycle.add(others.get(order[i]).getEdgeTo(others.get(order[(i + 1) % n])));
+        }
+        return cycle;
+    }
+
+    /**
+     * minTSP on a compressed sparse row snapshot, using Held-Karp or branch and bound as chooseTSPMode picks.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source position of the source
+     * @return the smallest/cheapest Ham Cycle in the form of an ordered list of edges, or null if there is none
+     * @throws IllegalArgumentException if the graph has more than 64 vertices, see chooseTSPMode
+     */
+    public static <V,E> List<Graph.Edge<V, E>> minTSP(CsrGraph<V, E> g, int source){
+        int n = g.n;
+        if(n < 2) return null;
+        boolean heldKarp = chooseTSPMode(g) == TSPMode.HELD_KARP;
+        //Held-Karp wants the source in the last position and branch and bound in the first, the others keep their order
+        int sourceAt = heldKarp ? n - 1 : 0;
+        int[] position = new int[n];
+        position[sourceAt] = source;
+        for(int k = 0, other = 0; k < n; k++){
+            if(k == sourceAt) continue;
+            if(other == source) other++;
+            position[k] = other++;
+        }
+        double[] matrix = g.weightMatrix();
+        double[] dist = new double[n * n];
+        for(int i = 0; i < n; i++){
+            for(int j = 0; j < n; j++) dist[i * n + j] = matrix[position[i] * n + position[j]];
+        }
+        int[] order = heldKarp ? heldKarpOrder(dist, n) : BranchAndBoundTSP.order(dist, n, null);
+        if(order == null) return null;
 
-        for (Graph.Vertex<V, E> vertex : g.verticesOrdered){
-            Data dataPoint = new Data(Double.POSITIVE_INFINITY, null);
-            vertices.put(vertex, dataPoint);
-            unused.offer(vertex);
-        } 
+        List<Graph.Edge<V, E>> cycle = new ArrayList<Graph.Edge<V, E>>(n);
+        for(int i = 0; i < n; i++){
+            cycle.add(g.getEdge(g.slot(position[order[i]], position[order[(i + 1) % n]])));
+        }
+        return cycle;
+    }
 
-        Graph.Vertex<V, E> cur = unused.poll();
-        while(unused.size() !=0){
-            //System.out.println(cur);
-            used.add(cur);
-            if (vertices.get(cur).prevEdge != null) mst.add(vertices.get(cur).prevEdge);
-            for(Graph.Edge<V, E> edge : cur.edgesOut()){
+    //The number of entries in the Held-Karp tables for n vertices
+    private static long heldKarpEntries(int n){
+        int m = Math.max(n - 1, 0);
+        return m < 40 ? (1L << m) * m : Long.MAX_VALUE / 9;
+    }
 
-                double weight = ((Graph.WeightedEdge<V, E>) edge).weight;
-                if(!used.contains(edge.other(cur)) && weight < vertices.get(edge.other(cur)).curDistance){
-                    vertices.get(edge.other(cur)).curDistance = weight;
-                    vertices.get(edge.other(cur)).prev = cur;
-                    vertices.get(edge.other(cur)).prevEdge = edge;
+    //Whether the Held-Karp tables for n vertices fit in one array and in memoryBudget bytes
+    private static boolean heldKarpFits(int n, long memoryBudget){
+        //each entry is a double for the cost and a byte for the parent
+        long entries = heldKarpEntries(n);
+        return entries <= Integer.MAX_VALUE - 8 && entries * 9 <= memoryBudget;
+    }
 
-                    unused.remove(edge.other(cur));
-                    unused.offer(edge.other(cur));
+    //Throws if the Held-Karp tables for n vertices would take more than memoryBudget bytes
+    private static void checkHeldKarpBudget(int n, long memoryBudget){
+        if(!heldKarpFits(n, memoryBudget)){
+            throw new IllegalArgumentException("Held-Karp needs " + heldKarpEntries(n) * 9 + " bytes for " + n
+                + " vertices, over the budget of " + memoryBudget + " bytes");
+        }
+    }
 
+    //The Held-Karp tables over a weight matrix whose last row is the source. Returns the positions of the cheapest
+    //cycle in order starting at the source, or null if there is none
+    private static int[] heldKarpOrder(double[] dist, int n){
+        int m = n - 1;
+        int entries = (1 << m) * m;
+        int full = 1 << m;
+        double[] cost = new double[entries];
+        byte[] parent = new byte[entries];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        for(int k = 0; k < m; k++){
+            cost[(1 << k) * m + k] = dist[m * n + k];
+            parent[(1 << k) * m + k] = (byte) m;
+        }
+
+        //masks only grow, so every subset is finished before any of its supersets are read
+        for(int mask = 1; mask < full; mask++){
+            int base = mask * m;
+            for(int j = 0; j < m; j++){
+                double cur = cost[base + j];
+                if(cur == Double.POSITIVE_INFINITY) continue;
+                int row = j * n;
+                for(int k = 0; k < m; k++){
+                    if((mask & (1 << k)) != 0) continue;
+                    double next = cur + dist[row + k];
+                    int slot = (mask | (1 << k)) * m + k;
+                    if(next < cost[slot]){
+                        cost[slot] = next;
+                        parent[slot] = (byte) j;
+                    }
                 }
             }
-            cur=unused.poll();
         }
-        return mst;
 
+        //close the cycle back to source
+        int mask = full - 1;
+        double best = Double.POSITIVE_INFINITY;
+        int last = -1;
+        for(int j = 0; j < m; j++){
+            double total = cost[mask * m + j] + dist[j * n + m];
+            if(total < best){
+                best = total;
+                last = j;
+            }
+        }
+        if(last == -1) return null;
+
+        //walk the parent table backwards to rebuild the order of the vertices
+        int[] path = new int[n];
+        path[0] = m;
+        for(int pos = m; pos > 0; pos--){
+            path[pos] = last;
+            int prev = parent[mask * m + last];
+            mask &= ~(1 << last);
+            last = prev;
+        }
+        return path;
     }
 
+    /**
+     * The algorithms mst can run.
+     * PRIM grows one tree outward from a vertex through an indexed heap, KRUSKAL sorts every edge by weight and joins
+     * trees with a disjoint-set forest, and AUTO picks between them by how dense the graph is. BORUVKA runs
+     * BoruvkaMst on the common pool, which spreads the work over every core.
+     */
+    public enum MstEngine{
+        AUTO,
+        PRIM,
+        KRUSKAL,
+        BORUVKA
+    }
+
+    /**
+     * The engine used by mst when none is given.
+     */
+    public static MstEngine mstEngine = MstEngine.AUTO;
+
+    /**
+     * The fraction of all possible edges a graph needs for AUTO to pick Prim's over Kruskal's. Kruskal's sorts the
+     * whole edge list up front but then sweeps flat arrays, which only pays off on large, very sparse graphs where
+     * Prim's heap and adjacency maps miss the cache; anywhere denser Prim's never sorting wins.
+     */
+    public static double primDensity = 0.001;
+
     /**
      * @param <V>
      * @param <E>
      * @param g
-     * @return the approximate solution for the shortest way to visit all the vertices and return to the same one
-     *         in the form of a collection of edges in order.
+     * @return the engine AUTO runs on g
      */
-    public static <V, E> Collection<Graph.Edge<V, E>> tspApprox(Graph<V, E> g){
-        Collection<Graph.Edge<V, E>> mst = mst(g);
-        Stack<Graph.Vertex<V, E>> stack = new Stack<Graph.Vertex<V,E>>();
-        ArrayList<Graph.Vertex<V,E>> visited = new ArrayList<Graph.Vertex<V, E>>();
-        List<Graph.Vertex<V, E>> path = new ArrayList<Graph.Vertex<V,E>>();
-        List<Graph.Edge<V, E>> toReturn = new ArrayList<Graph.Edge<V,E>>();
-
-        stack.push(g.getVertex(18));
-        visited.add(g.getVertex(18));
-        Graph.Vertex<V,E> cur = null;
-        while(!stack.isEmpty()){
-            //check if this is the final city
-            if(path.size() == 46){
-                cur = stack.pop();
-                path.add(cur);
-                stack.push(g.getVertex(18));
-                visited.remove(18);
-                
-            }
+    public static <V, E> MstEngine chooseMstEngine(Graph<V, E> g){
+        long n = g.verticesOrdered.size();
+        return g.edges.size() >= primDensity * n * (n - 1) / 2 ? MstEngine.PRIM : MstEngine.KRUSKAL;
+    }
 
-            if(path.size() == 47){
-                
-                cur = stack.pop();
-                path.add(cur);
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g an undirected graph
+     * @return the minimal spanning tree of the graph where each vertex is connected in the shortest way possible
+     *         in the form of a collection of edges, or a spanning forest if it is not connected
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> mst(Graph<V, E> g){
+        return mst(g, mstEngine);
+    }
 
-                for(Graph.Vertex<V, E> vertex : path){
-                    if(toReturn.size()<47){ 
-                        Graph.Edge<V, E> curEdge = vertex.getEdgeTo(path.get((path.indexOf(vertex)+1) % path.size()));
-                        toReturn.add(curEdge);
-                    }
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g an undirected graph
+     * @param engine which algorithm to run
+     * @return the minimal spanning tree of the graph where each vertex is connected in the shortest way possible
+     *         in the form of a collection of edges, or a spanning forest if it is not connected
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> mst(Graph<V, E> g, MstEngine engine){
+        if(engine == MstEngine.AUTO) engine = chooseMstEngine(g);
+        if(engine == MstEngine.BORUVKA) return BoruvkaMst.mst(g);
+        return engine == MstEngine.KRUSKAL ? kruskal(g) : prim(g);
+    }
+
+    //Prim's with an indexed heap of the vertices next to the tree keyed by their cheapest edge to it, and the tree
+    //kept as flags by vertex id. O(E log V)
+    private static <V, E> Collection<Graph.Edge<V, E>> prim(Graph<V, E> g){
+        int n = g.verticesOrdered.size();
+        Collection<Graph.Edge<V, E>> mst = new ArrayList<Graph.Edge<V, E>>(Math.max(n - 1, 0));
+        //whether each vertex is in the tree yet, and the cheapest edge joining it to the tree, by vertex id
+        boolean[] inTree = new boolean[n];
+        List<Graph.Edge<V, E>> bestEdge = new ArrayList<Graph.Edge<V, E>>(Collections.nCopies(n, (Graph.Edge<V, E>) null));
+        //a cheaper edge to a vertex already in the heap is an O(log V) decrease-key rather than a remove and offer
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        for(int root = 0; root < n; root++){
+            if(inTree[root]) continue;
+            queue.insert(root, 0.0);
+            while(!queue.isEmpty()){ //O(V) where V is the number of vertices
+                int cur = queue.poll(); //O(log V)
+                inTree[cur] = true;
+                if(bestEdge.get(cur) != null) mst.add(bestEdge.get(cur));
+                Graph.Vertex<V, E> curVertex = g.verticesOrdered.get(cur);
+                for(Graph.Edge<V, E> edge : curVertex.edgesOut()){ //O(E) over the whole run
+                    int next = edge.other(curVertex).id();
+                    if(!inTree[next] && queue.offer(next, ((Graph.WeightedEdge<V, E>) edge).weight)) bestEdge.set(next, edge); //O(log V)
                 }
-                return toReturn;
             }
-            cur = stack.pop();
+        }
+        return mst;
+    }
 
-            Collection<Graph.Edge<V,E>> edgesOut = cur.edgesOut();
-            ArrayList<Graph.Edge<V,E>> edges = new ArrayList<Graph.Edge<V,E>>();
+    //Kruskal's: the edges in order of weight, each kept if it joins two different trees. O(E log E)
+    private static <V, E> Collection<Graph.Edge<V, E>> kruskal(Graph<V, E> g){
+        int n = g.verticesOrdered.size();
+        List<Graph.Edge<V, E>> edges = new ArrayList<Graph.Edge<V, E>>(g.edges);
+        int m = edges.size();
+        double[] weights = new double[m];
+        for(int i = 0; i < m; i++){
+            weights[i] = ((Graph.WeightedEdge<V, E>) edges.get(i)).weight;
+        }
+
+        //sort the edge indices by weight, reading the weights from a flat array rather than casting each edge
+        int[] order = sortByWeight(weights);
+
+        Collection<Graph.Edge<V, E>> mst = new ArrayList<Graph.Edge<V, E>>(Math.max(n - 1, 0));
+        DisjointSets trees = new DisjointSets(n);
+        for(int k = 0; k < m && mst.size() < n - 1; k++){
+            Graph.Edge<V, E> edge = edges.get(order[k]);
+            if(trees.union(edge.endpoint(0).id(), edge.endpoint(1).id())) mst.add(edge);
+        }
+        return mst;
+    }
+
+    //The indices of weights in order of increasing weight, ties in index order, as Double.compare orders them. An LSD
+    //radix sort over the weights' bits, flipped so they compare as unsigned longs, 11 bits a pass on plain int and
+    //long arrays. Passes where every key has the same digit are skipped, which for weights of similar size covers
+    //most of the exponent. O(E)
+    private static int[] sortByWeight(double[] weights){
+        int m = weights.length;
+        long[] keys = new long[m];
+        int[] order = new int[m];
+        for(int i = 0; i < m; i++){
+            long bits = Double.doubleToLongBits(weights[i]);
+            keys[i] = bits ^ ((bits >> 63) | Long.MIN_VALUE);
+            order[i] = i;
+        }
+        long[] keysTo = new long[m];
+        int[] orderTo = new int[m];
+        int[] count = new int[1 << 11];
+        for(int shift = 0; shift < 64; shift += 11){
+            Arrays.fill(count, 0);
+            for(int i = 0; i < m; i++) count[(int) (keys[i] >>> shift) & 0x7FF]++;
+            if(m == 0 || count[(int) (keys[0] >>> shift) & 0x7FF] == m) continue;
+            for(int digit = 0, start = 0; digit < count.length; digit++){
+                int size = count[digit];
+                count[digit] = start;
+                start += size;
+            }
+            for(int i = 0; i < m; i++){
+                int at = count[(int) (keys[i] >>> shift) & 0x7FF]++;
+                keysTo[at] = keys[i];
+                orderTo[at] = order[i];
+            }
+            long[] swapKeys = keys;
+            keys = keysTo;
+            keysTo = swapKeys;
+            int[] swapOrder = order;
+            order = orderTo;
+            orderTo = swapOrder;
+        }
+        return order;
+    }
 
-            for(Graph.Edge<V,E> edge : edgesOut){
-                edges.add(edge);
+    /**
+     * Prim's on a compressed sparse row snapshot, with an indexed heap of the vertices not yet in the tree keyed by
+     * their cheapest edge to it. O(E log V).
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g an undirected graph
+     * @return the minimal spanning tree of the graph, or a spanning forest if it is not connected, in the form of a
+     *         collection of edges
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> mst(CsrGraph<V, E> g){
+        Collection<Graph.Edge<V, E>> mst = new ArrayList<Graph.Edge<V, E>>(Math.max(g.n - 1, 0));
+        boolean[] inTree = new boolean[g.n];
+        //the slot of the cheapest edge joining each vertex to the tree, or -1 if none has been seen
+        int[] bestSlot = new int[g.n];
+        Arrays.fill(bestSlot, -1);
+        IndexedMinHeap queue = new IndexedMinHeap(g.n);
+        for(int root = 0; root < g.n; root++){
+            if(inTree[root]) continue;
+            queue.insert(root, 0.0);
+            while(!queue.isEmpty()){
+                int cur = queue.poll();
+                inTree[cur] = true;
+                if(bestSlot[cur] != -1) mst.add(g.getEdge(bestSlot[cur]));
+                for(int slot = g.offset(cur); slot < g.offset(cur + 1); slot++){
+                    int next = g.target(slot);
+                    if(!inTree[next] && queue.offer(next, g.weight(slot))) bestSlot[next] = slot;
+                }
             }
-            Collections.shuffle(edges);
+        }
+        return mst;
+    }
 
-            for(Graph.Edge<V,E> edge : edges){
-                if(mst.contains(edge) && !visited.contains(edge.other(cur))){
-                    stack.push(edge.other(cur));
-                    visited.add(edge.other(cur));
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @return the approximate solution for the shortest way to visit all the vertices and return to the same one
+     *         in the form of a collection of edges in order, starting from the first vertex
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> tspApprox(Graph<V, E> g){
+        if(g.verticesOrdered.isEmpty()) return new ArrayList<Graph.Edge<V, E>>();
+        return tspApprox(g, g.getVertex(0));
+    }
+
+    /**
+     * The MST 2-approximation: visit the vertices in the order a depth-first walk of the minimal spanning tree first
+     * reaches them, skipping straight past any vertex already seen. On a complete graph whose weights obey the
+     * triangle inequality the tour is at most twice the optimum. O(V + E) on top of the mst.
+     * 
+     * @param <V>
+     * @param <E>
+     * @param g a complete undirected graph
+     * @param start the vertex the tour starts and ends at
+     * @return the approximate solution for the shortest way to visit all the vertices and return to the same one
+     *         in the form of a collection of edges in order, or null if g is not connected or lacks an edge the
+     *         tour needs
+     */
+    public static <V, E> Collection<Graph.Edge<V, E>> tspApprox(Graph<V, E> g, Graph.Vertex<V, E> start){
+        int n = g.verticesOrdered.size();
+        List<Graph.Edge<V, E>> tour = new ArrayList<Graph.Edge<V, E>>(n);
+        if(n < 2) return tour;
+
+        //the tree's adjacency by vertex id, as neighbors[offsets[u]..offsets[u + 1]) like a CsrGraph
+        Collection<Graph.Edge<V, E>> mst = mst(g);
+        int[] offsets = new int[n + 1];
+        for(Graph.Edge<V, E> edge : mst){
+            offsets[edge.endpoint(0).id() + 1]++;
+            offsets[edge.endpoint(1).id() + 1]++;
+        }
+        for(int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+        int[] neighbors = new int[offsets[n]];
+        int[] filled = Arrays.copyOf(offsets, n);
+        for(Graph.Edge<V, E> edge : mst){
+            int u = edge.endpoint(0).id();
+            int v = edge.endpoint(1).id();
+            neighbors[filled[u]++] = v;
+            neighbors[filled[v]++] = u;
+        }
+
+        //preorder walk of the tree with an explicit stack, so deep trees can't overflow the call stack
+        int[] order = new int[n];
+        int visitedCount = 0;
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        stack[top++] = start.id();
+        visited[start.id()] = true;
+        while(top > 0){
+            int cur = stack[--top];
+            order[visitedCount++] = cur;
+            //pushed in reverse so the neighbors come off the stack in the order the tree lists them
+            for(int k = offsets[cur + 1] - 1; k >= offsets[cur]; k--){
+                int next = neighbors[k];
+                if(!visited[next]){
+                    visited[next] = true;
+                    stack[top++] = next;
                 }
             }
-            
-            path.add(cur);
+        }
+        if(visitedCount < n) return null;
 
+        for(int i = 0; i < n; i++){
+            Graph.Edge<V, E> edge = g.getEdge(g.getVertex(order[i]), g.getVertex(order[(i + 1) % n]));
+            if(edge == null) return null;
+            tour.add(edge);
         }
-        
-        return toReturn;
+        return tour;
     }
 
     public static void main(String[] args) throws IOException{
@@ -19,6 +19,139 @@ public class GraphAlgorithmsTests{
             assert g != null : "Problem in readData";
         }
 
+        //Case 1: readData merges rows that name the same city under different ids
+        {
+            //setup
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("cities", ".csv");
+            java.nio.file.Files.write(file, java.util.Arrays.asList("id1,city1,id2,city2,miles", "0,Boston,1,Albany,170", "2,Boston,3,Hartford,100", "1,Albany,3,Hartford,110"));
+            Graph<String, Object> g = GraphAlgorithms.readData(file.toString());
+            java.nio.file.Files.delete(file);
+
+            //verify
+            System.out.println(g);
+
+            //assert
+            assert g.verticesOrdered.size() == 3 : "Problem in readData";
+            assert g.edges.size() == 3 : "Problem in readData";
+            assert g.getVertex(0).data.equals("Boston") && g.getVertex(0).edgesOut().size() == 2 : "Problem in readData";
+        }
+
+        //Case 1: removeVertex and removeEdge
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("miniState.csv");
+            int n = g.verticesOrdered.size();
+            int m = g.edges.size();
+            Graph.Vertex<String, Object> last = g.getVertex(n - 1);
+            Graph.Edge<String, Object> removed = g.removeEdge(1, 2);
+            boolean removedVertex = g.removeVertex(g.getVertex(0));
+
+            //verify
+            System.out.println(g);
+
+            //assert
+            assert removed != null && g.getEdge(1, 2) == null && !g.edges.contains(removed) : "Problem in removeEdge";
+            assert removedVertex && g.verticesOrdered.size() == n - 1 && g.getVertex(0) == last : "Problem in removeVertex";
+            assert g.edges.size() == m - 1 - (n - 1) : "Problem in removeVertex";
+            for (Graph.Vertex<String, Object> vertex : g.vertices){
+                assert vertex.edgesOut().size() == (vertex == g.getVertex(1) || vertex == g.getVertex(2) ? n - 3 : n - 2) : "Problem in removeVertex";
+            }
+        }
+
+        //Case 1: a concurrent Graph built from several threads
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>(Graph.SetKind.CONCURRENT);
+            @SuppressWarnings("unchecked")
+            Graph.Vertex<String, Object>[] vertices = (Graph.Vertex<String, Object>[]) new Graph.Vertex<?, ?>[100];
+            for (int i = 0; i < vertices.length; i++){
+                vertices[i] = g.addVertex("" + i);
+            }
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++){
+                int first = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = first; i < vertices.length; i += threads.length){
+                        for (int j = 0; j < i; j++){
+                            g.addEdge(vertices[i], vertices[j], i + j);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads){
+                try{
+                    thread.join();
+                } catch (InterruptedException e){
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            //verify
+            System.out.println(g.edges.size());
+
+            //assert
+            assert g.edges.size() == 100 * 99 / 2 && g.verticesOrdered.size() == 100 : "Problem in a concurrent Graph";
+            for (Graph.Vertex<String, Object> vertex : g.vertices){
+                assert vertex.edgesOut().size() == 99 : "Problem in a concurrent Graph";
+            }
+        }
+
+        //Case 1: a concurrent Graph takes edges by position while another thread keeps adding vertices
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>(Graph.SetKind.CONCURRENT);
+            int n = 100;
+            for (int i = 0; i < n; i++){
+                g.addVertex("" + i);
+            }
+            //grows verticesOrdered, so its backing array is replaced while the positions below are read
+            Thread grower = new Thread(() -> {
+                for (int i = 0; i < 20000; i++){
+                    g.addVertex("extra" + i);
+                }
+            });
+            Thread[] threads = new Thread[3];
+            java.util.concurrent.atomic.AtomicInteger failures = new java.util.concurrent.atomic.AtomicInteger();
+            for (int t = 0; t < threads.length; t++){
+                int first = t;
+                threads[t] = new Thread(() -> {
+                    try{
+                        for (int i = first; i < n; i += threads.length){
+                            for (int j = 0; j < i; j++){
+                                g.addEdge(i, j, i + j);
+                            }
+                        }
+                    } catch (RuntimeException e){
+                        failures.incrementAndGet();
+                    }
+                });
+            }
+            grower.start();
+            for (Thread thread : threads){
+                thread.start();
+            }
+            try{
+                grower.join();
+                for (Thread thread : threads){
+                    thread.join();
+                }
+            } catch (InterruptedException e){
+                throw new IllegalStateException(e);
+            }
+
+            //verify
+            System.out.println(g.edges.size() + " " + g.verticesOrdered.size() + " " + failures.get());
+
+            //assert
+            assert failures.get() == 0 : "Problem in a concurrent Graph by position";
+            assert g.edges.size() == n * (n - 1) / 2 && g.verticesOrdered.size() == n + 20000 : "Problem in a concurrent Graph by position";
+            for (int i = 0; i < n; i++){
+                assert g.getVertex(i).edgesOut().size() == n - 1 : "Problem in a concurrent Graph by position";
+            }
+        }
+
         //Case 2: shortestPaths
         {
             //setup
@@ -33,6 +166,251 @@ public class GraphAlgorithmsTests{
             assert GraphAlgorithms.shortestPaths(g, g.getVertex(0)) != null : "Problem in getShortestPaths";
         }
 
+        //Case 2: shortestPaths gives the same distances on the lazy heap and the indexed heap
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("StateData.csv");
+            int mismatches = 0;
+            for (Graph.Vertex<String, Object> source : g.verticesOrdered){
+                java.util.HashMap<Graph.Vertex<String, Object>, Double> lazy = GraphAlgorithms.shortestPaths(g, source, GraphAlgorithms.DijkstraEngine.LAZY_HEAP);
+                java.util.HashMap<Graph.Vertex<String, Object>, Double> indexed = GraphAlgorithms.shortestPaths(g, source, GraphAlgorithms.DijkstraEngine.INDEXED_HEAP);
+                if (lazy.size() != g.verticesOrdered.size() || !lazy.equals(indexed)){
+                    mismatches++;
+                }
+            }
+
+            //verify
+            System.out.println(mismatches);
+
+            //assert
+            assert mismatches == 0 : "Problem in shortestPaths engines";
+        }
+
+        //Case 2: shortestPath and bidirectionalShortestPath match shortestPaths
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("miniState.csv");
+            GraphAlgorithms.Route<String, Object> route = GraphAlgorithms.shortestPath(g, g.getVertex(0), g.getVertex(3));
+
+            //verify
+            System.out.println(route);
+
+            //assert
+            assert route.distance == GraphAlgorithms.shortestPaths(g, g.getVertex(0)).get(g.getVertex(3)) : "Problem in shortestPath";
+            assert route.distance == GraphAlgorithms.bidirectionalShortestPath(g, g.getVertex(0), g.getVertex(3)).distance : "Problem in bidirectionalShortestPath";
+        }
+
+        //Case 2: bidirectionalShortestPath matches shortestPaths on a directed graph with one-way and lopsided edges
+        {
+            //setup
+            java.util.Random random = new java.util.Random(9);
+            int n = 40;
+            Graph<String, Object> g = new Graph<>();
+            for (int i = 0; i < n; i++){
+                g.addVertex("" + i);
+            }
+            for (int i = 0; i < 160; i++){
+                int u = random.nextInt(n - 1);
+                int v = random.nextInt(n - 1);
+                if (u == v || g.getEdge(u, v) != null) continue;
+                g.addEdge(new Graph.WeightedEdge<String, Object>(g.getVertex(u), g.getVertex(v), 1 + random.nextInt(100), true));
+                //the way back, when there is one, costs something else
+                if (random.nextBoolean() && g.getEdge(v, u) == null){
+                    g.addEdge(new Graph.WeightedEdge<String, Object>(g.getVertex(v), g.getVertex(u), 1 + random.nextInt(1000), true));
+                }
+            }
+            //the last vertex can leave but never be reached
+            g.addEdge(new Graph.WeightedEdge<String, Object>(g.getVertex(n - 1), g.getVertex(0), 5.0, true));
+            int mismatches = 0;
+            int unreachable = 0;
+            for (int s = 0; s < n; s++){
+                java.util.Map<Graph.Vertex<String, Object>, Double> distances = GraphAlgorithms.shortestPaths(g, g.getVertex(s));
+                for (int t = 0; t < n; t++){
+                    GraphAlgorithms.Route<String, Object> route = GraphAlgorithms.bidirectionalShortestPath(g, g.getVertex(s), g.getVertex(t));
+                    Double expected = distances.get(g.getVertex(t));
+                    double want = expected == null ? Double.POSITIVE_INFINITY : expected;
+                    if (route.distance != want) mismatches++;
+                    if (want == Double.POSITIVE_INFINITY){
+                        unreachable++;
+                        if (route.edges != null) mismatches++;
+                        continue;
+                    }
+                    //the route follows edges forward from s to t and adds up to its distance
+                    double length = 0.0;
+                    Graph.Vertex<String, Object> at = g.getVertex(s);
+                    for (Graph.Edge<String, Object> edge : route.edges){
+                        if (edge.source() != at) mismatches++;
+                        at = edge.target();
+                        length += ((Graph.WeightedEdge<String, Object>) edge).weight;
+                    }
+                    if (at != g.getVertex(t) || length != want) mismatches++;
+                }
+            }
+
+            //verify
+            System.out.println(mismatches + " " + unreachable);
+
+            //assert
+            assert unreachable >= n - 1 : "Problem in bidirectionalShortestPath test setup";
+            assert mismatches == 0 : "Problem in bidirectionalShortestPath on a directed graph";
+        }
+
+        //Case 2: ContractionHierarchy matches shortestPaths exactly, before and after a save and load
+        {
+            //setup
+            Graph<String, Object> states = GraphAlgorithms.readData("StateData.csv");
+            Graph<String, Object> random = new Graph<>();
+            java.util.Random rand = new java.util.Random(11);
+            for (int i = 0; i < 300; i++){
+                random.addVertex("" + i);
+            }
+            for (int i = 0; i < 900; i++){
+                int u = rand.nextInt(300);
+                int v = rand.nextInt(300);
+                if (u != v){
+                    random.addEdge(u, v, rand.nextDouble() * 100);
+                }
+            }
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("hierarchy", ".ch");
+            ContractionHierarchy.build(random).save(file.toString());
+            ContractionHierarchy loaded = ContractionHierarchy.load(file.toString());
+            java.nio.file.Files.delete(file);
+            int mismatches = 0;
+            for (Graph<String, Object> g : java.util.Arrays.asList(states, random)){
+                ContractionHierarchy ch = ContractionHierarchy.build(g);
+                int n = g.verticesOrdered.size();
+                for (int s = 0; s < n; s++){
+                    java.util.HashMap<Graph.Vertex<String, Object>, Double> distances = GraphAlgorithms.shortestPaths(g, g.getVertex(s));
+                    for (int t = 0; t < n; t++){
+                        Double expected = distances.get(g.getVertex(t));
+                        double want = expected == null ? Double.POSITIVE_INFINITY : expected;
+                        if (ch.distance(s, t) != want || (g == random && loaded.distance(s, t) != want)){
+                            mismatches++;
+                        }
+                    }
+                }
+            }
+
+            //verify
+            System.out.println(loaded.size() + " " + loaded.edgeCount() + " " + mismatches);
+
+            //assert
+            assert loaded.size() == 300 : "Problem in ContractionHierarchy.load";
+            assert mismatches == 0 : "Problem in ContractionHierarchy.distance";
+        }
+
+        //Case 2: aStar with greatCircleHeuristic matches shortestPath and settles no more vertices
+        {
+            //setup
+            class Place implements GraphAlgorithms.Located{
+                final double latitude, longitude;
+
+                Place(double latitude, double longitude){
+                    this.latitude = latitude;
+                    this.longitude = longitude;
+                }
+
+                public double latitude(){
+                    return latitude;
+                }
+
+                public double longitude(){
+                    return longitude;
+                }
+            }
+            java.util.Random rand = new java.util.Random(12);
+            int[][] pairs = {{0, 1}, {0, 15}, {3, 12}, {7, 19}, {19, 2}, {11, 4}};
+            int mismatches = 0;
+            int aStarSettled = 0, dijkstraSettled = 0;
+            for (String file : new String[]{"StateData.csv", "airportDatacut.csv"}){
+                //the same cities at random places on a sphere shrunk until no edge is shorter than the great circle
+                //between its ends, which keeps the heuristic consistent
+                Graph<String, Object> data = GraphAlgorithms.readData(file);
+                Graph<Place, Object> g = new Graph<>();
+                for (Graph.Vertex<String, Object> vertex : data.verticesOrdered){
+                    g.addVertex(new Place(rand.nextDouble() * 120 - 60, rand.nextDouble() * 360 - 180));
+                }
+                java.util.function.ToDoubleBiFunction<Graph.Vertex<Place, Object>, Graph.Vertex<Place, Object>> angle = GraphAlgorithms.greatCircleHeuristic(1.0);
+                double radius = Double.POSITIVE_INFINITY;
+                for (Graph.Edge<String, Object> edge : data.edges){
+                    Graph.Vertex<Place, Object> u = g.getVertex(edge.endpoint(0).id());
+                    Graph.Vertex<Place, Object> v = g.getVertex(edge.endpoint(1).id());
+                    double weight = ((Graph.WeightedEdge<String, Object>) edge).weight;
+                    g.addEdge(u, v, weight);
+                    radius = Math.min(radius, weight / angle.applyAsDouble(u, v));
+                }
+                for (int[] pair : pairs){
+                    Graph.Vertex<Place, Object> source = g.getVertex(pair[0]);
+                    Graph.Vertex<Place, Object> target = g.getVertex(pair[1]);
+                    GraphAlgorithms.Route<Place, Object> dijkstra = GraphAlgorithms.shortestPath(g, source, target);
+                    GraphAlgorithms.Route<Place, Object> aStar = GraphAlgorithms.aStar(g, source, target, GraphAlgorithms.greatCircleHeuristic(radius));
+                    if (aStar.distance != dijkstra.distance || aStar.distance != GraphAlgorithms.shortestPaths(g, source).get(target) || aStar.settled > dijkstra.settled){
+                        mismatches++;
+                    }
+                    aStarSettled += aStar.settled;
+                    dijkstraSettled += dijkstra.settled;
+                }
+            }
+
+            //verify
+            System.out.println(mismatches + " " + aStarSettled + " " + dijkstraSettled);
+
+            //assert
+            assert mismatches == 0 : "Problem in aStar";
+        }
+
+        //Case 2: AllPairsShortestPaths matches shortestPaths
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("airportDatacut.csv");
+            int n = g.verticesOrdered.size();
+            double[] matrix = AllPairsShortestPaths.distances(g);
+
+            //verify
+            System.out.println(matrix[n - 1]);
+
+            //assert
+            for (int i = 0; i < n; i++){
+                java.util.HashMap<Graph.Vertex<String, Object>, Double> distances = GraphAlgorithms.shortestPaths(g, g.getVertex(i));
+                for (int j = 0; j < n; j++){
+                    assert matrix[i * n + j] == distances.get(g.getVertex(j)) : "Problem in AllPairsShortestPaths";
+                }
+            }
+        }
+
+        //Case 2: floydWarshall matches AllPairsShortestPaths and its paths add up
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("airportDatacut.csv");
+            int n = g.verticesOrdered.size();
+            double[] matrix = AllPairsShortestPaths.distances(g, java.util.concurrent.ForkJoinPool.commonPool());
+            AllPairsShortestPaths.tileSize = 3;
+            AllPairsShortestPaths.Paths paths = AllPairsShortestPaths.floydWarshall(g, java.util.concurrent.ForkJoinPool.commonPool());
+            double[] distancesOnly = AllPairsShortestPaths.floydWarshallDistances(g, java.util.concurrent.ForkJoinPool.commonPool());
+            AllPairsShortestPaths.tileSize = 64;
+
+            //verify
+            System.out.println(java.util.Arrays.toString(paths.path(0, n - 1)));
+
+            //assert
+            for (int i = 0; i < n; i++){
+                for (int j = 0; j < n; j++){
+                    assert matrix[i * n + j] == paths.distance(i, j) : "Problem in floydWarshall";
+                    assert matrix[i * n + j] == distancesOnly[i * n + j] : "Problem in floydWarshallDistances";
+                    int[] path = paths.path(i, j);
+                    double length = 0.0;
+                    for (int k = 0; k + 1 < path.length; k++){
+                        length += ((Graph.WeightedEdge<String, Object>) g.getEdge(path[k], path[k + 1])).weight;
+                    }
+                    assert length == paths.distance(i, j) : "Problem in floydWarshall paths";
+                }
+            }
+        }
+
         //Case 3: allHamCycles
         {
             //setup
@@ -47,6 +425,54 @@ public class GraphAlgorithmsTests{
             assert GraphAlgorithms.allHamCycles(g, g.getVertex(0)) != null : "Problem in allHamCycles";
         }
 
+        //Case 3: the bitmask and vertex list Ham Cycle engines find the same cycles
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("miniState.csv");
+            java.util.List<java.util.Set<java.util.List<Graph.Edge<String, Object>>>> cycles = new java.util.ArrayList<>();
+            java.util.List<Double> costs = new java.util.ArrayList<>();
+            int found = 0;
+            for (GraphAlgorithms.HamEngine engine : GraphAlgorithms.HamEngine.values()){
+                java.util.Collection<java.util.List<Graph.Edge<String, Object>>> all = GraphAlgorithms.allHamCycles(g, g.getVertex(0), engine);
+                found = all.size();
+                cycles.add(new java.util.HashSet<>(all));
+                double[] cheapest = {Double.POSITIVE_INFINITY};
+                GraphAlgorithms.forEachHamCycle(g, g.getVertex(0), engine, cycle -> {
+                    double cost = 0.0;
+                    for (Graph.Edge<String, Object> edge : cycle){
+                        cost += ((Graph.WeightedEdge<String, Object>) edge).weight;
+                    }
+                    cheapest[0] = Math.min(cheapest[0], cost);
+                    return true;
+                });
+                costs.add(cheapest[0]);
+            }
+
+            //verify
+            System.out.println(found + " " + costs);
+
+            //assert
+            assert cycles.get(0).size() == found && found > 0 : "Problem in allHamCycles";
+            assert cycles.get(0).equals(cycles.get(1)) : "Problem in allHamCycles engines";
+            assert costs.get(0).equals(costs.get(1)) : "Problem in forEachHamCycle engines";
+        }
+
+        //Case 3: forEachHamCycle stops early
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("miniState.csv");
+            int[] seen = {0};
+            boolean finished = GraphAlgorithms.forEachHamCycle(g, g.getVertex(0), cycle -> ++seen[0] < 3);
+
+            //verify
+            System.out.println(seen[0] + " " + finished);
+
+            //assert
+            assert seen[0] == 3 && !finished : "Problem in forEachHamCycle";
+        }
+
         //Case 4: minTSP
         {
             //setup
@@ -61,6 +487,139 @@ public class GraphAlgorithmsTests{
             assert GraphAlgorithms.minTSP(g, g.getVertex(0)) != null : "Problem in minTSP";
         }
 
+        //Case 4: minTSP leaves Held-Karp for branch and bound when its tables would not fit
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("miniState.csv");
+            Graph<String, Object> big = GraphAlgorithms.readData("StateData.csv");
+            double heldKarpCost = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(g, g.getVertex(0))){
+                heldKarpCost += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            long budget = GraphAlgorithms.heldKarpMemoryBudget;
+            GraphAlgorithms.heldKarpMemoryBudget = 0;
+            GraphAlgorithms.TSPMode overBudget = GraphAlgorithms.chooseTSPMode(g);
+            double overBudgetCost = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(g, g.getVertex(0))){
+                overBudgetCost += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            GraphAlgorithms.heldKarpMemoryBudget = budget;
+
+            //verify
+            System.out.println(heldKarpCost + " " + overBudget + " " + overBudgetCost);
+
+            //assert
+            assert GraphAlgorithms.chooseTSPMode(g) == GraphAlgorithms.TSPMode.HELD_KARP : "Problem in chooseTSPMode";
+            assert GraphAlgorithms.chooseTSPMode(big) == GraphAlgorithms.TSPMode.BRANCH_AND_BOUND : "Problem in chooseTSPMode";
+            assert overBudget == GraphAlgorithms.TSPMode.BRANCH_AND_BOUND : "Problem in chooseTSPMode";
+            assert overBudgetCost == heldKarpCost : "Problem in minTSP";
+        }
+
+        //Case 4: minTSP refuses graphs past branch and bound's 64 vertices, while tspApprox still finds a tour
+        {
+            //setup
+            int n = 65;
+            Graph<String, Object> g = new Graph<>(n);
+            for (int i = 0; i < n; i++){
+                for (int j = 0; j < i; j++){
+                    g.addEdge(i, j, (double) (i + j));
+                }
+            }
+            boolean refused = false;
+            try {
+                GraphAlgorithms.minTSP(g, g.getVertex(0));
+            } catch (IllegalArgumentException e){
+                refused = true;
+            }
+            java.util.Collection<Graph.Edge<String, Object>> approx = GraphAlgorithms.tspApprox(g, g.getVertex(0));
+
+            //verify
+            System.out.println(GraphAlgorithms.chooseTSPMode(g) + " " + refused + " " + approx.size());
+
+            //assert
+            assert GraphAlgorithms.chooseTSPMode(g) == GraphAlgorithms.TSPMode.BRANCH_AND_BOUND : "Problem in chooseTSPMode";
+            assert refused : "Problem in minTSP past 64 vertices";
+            assert approx.size() == n : "Problem in tspApprox past 64 vertices";
+        }
+
+        //Case 4: minTSP Held-Karp, branch and bound and parallel match enumeration
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("miniState.csv");
+            double enumerated = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(g, g.getVertex(0), GraphAlgorithms.TSPMode.ENUMERATION)){
+                enumerated += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            double heldKarp = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(g, g.getVertex(0), GraphAlgorithms.TSPMode.HELD_KARP)){
+                heldKarp += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            double branchAndBound = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(g, g.getVertex(0), GraphAlgorithms.TSPMode.BRANCH_AND_BOUND)){
+                branchAndBound += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            double parallel = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(g, g.getVertex(0), GraphAlgorithms.TSPMode.PARALLEL)){
+                parallel += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+
+            //verify
+            System.out.println(enumerated + " " + heldKarp + " " + branchAndBound + " " + parallel);
+
+            //assert
+            assert enumerated == heldKarp : "Problem in minTSP Held-Karp";
+            assert enumerated == branchAndBound : "Problem in minTSP branch and bound";
+            assert enumerated == parallel : "Problem in minTSP parallel";
+        }
+
+        //Case 4: branch and bound reports a lower bound that only rises, stays under the best tour and meets it
+        {
+            //setup
+            java.util.Random random = new java.util.Random(11);
+            int n = 30;
+            Graph<String, Object> g = new Graph<>(n);
+            double[] x = new double[n];
+            double[] y = new double[n];
+            for (int i = 0; i < n; i++){
+                x[i] = random.nextDouble() * 1000;
+                y[i] = random.nextDouble() * 1000;
+                for (int j = 0; j < i; j++){
+                    g.addEdge(i, j, (double) Math.round(Math.hypot(x[i] - x[j], y[i] - y[j]) + random.nextInt(200)));
+                }
+            }
+            java.util.List<Double> lowerBounds = new java.util.ArrayList<>();
+            java.util.List<Double> bestCosts = new java.util.ArrayList<>();
+            long interval = BranchAndBoundTSP.reportInterval;
+            BranchAndBoundTSP.reportInterval = 1;
+            java.util.List<Graph.Edge<String, Object>> tour = GraphAlgorithms.minTSP(g, g.getVertex(0), GraphAlgorithms.TSPMode.BRANCH_AND_BOUND, stats -> {
+                lowerBounds.add(stats.lowerBound);
+                bestCosts.add(stats.bestCost);
+            });
+            BranchAndBoundTSP.reportInterval = interval;
+            double cost = 0.0;
+            for (Graph.Edge<String, Object> edge : tour){
+                cost += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            boolean rising = true;
+            boolean underBest = true;
+            for (int i = 0; i < lowerBounds.size(); i++){
+                if (i > 0 && lowerBounds.get(i) < lowerBounds.get(i - 1)) rising = false;
+                if (lowerBounds.get(i) > bestCosts.get(i)) underBest = false;
+            }
+            int last = lowerBounds.size() - 1;
+
+            //verify
+            System.out.println(lowerBounds.size() + " reports, bound " + lowerBounds.get(0) + " to " + lowerBounds.get(last) + ", tour " + cost);
+
+            //assert
+            assert lowerBounds.size() > 1 : "Problem in branch and bound progress";
+            assert rising : "Problem in branch and bound lowerBound rising";
+            assert underBest : "Problem in branch and bound lowerBound under bestCost";
+            assert lowerBounds.get(last) == cost && bestCosts.get(last) == cost : "Problem in branch and bound final gap";
+        }
+
         //Case 4: mst
         {
             //setup
@@ -75,6 +634,150 @@ public class GraphAlgorithmsTests{
             assert GraphAlgorithms.mst(g) != null : "Problem in mst";
         }
 
+        //Case 4: mst spans every vertex with the lightest tree
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("StateData.csv");
+            java.util.Collection<Graph.Edge<String, Object>> mst = GraphAlgorithms.mst(g);
+            double weight = 0.0;
+            for (Graph.Edge<String, Object> edge : mst){
+                weight += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+
+            //verify
+            System.out.println(weight);
+
+            //assert
+            assert mst.size() == g.verticesOrdered.size() - 1 : "Problem in mst";
+            assert new Graph<String, Object>(mst).verticesOrdered.size() == g.verticesOrdered.size() : "Problem in mst";
+            assert weight == 1839.0 : "Problem in mst";
+        }
+
+        //Case 4: Kruskal's and Boruvka's mst match Prim's
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("airportDatacut.csv");
+            java.util.Collection<Graph.Edge<String, Object>> kruskal = GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.KRUSKAL);
+            double kruskalWeight = 0.0;
+            for (Graph.Edge<String, Object> edge : kruskal){
+                kruskalWeight += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            double primWeight = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.PRIM)){
+                primWeight += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+            java.util.Collection<Graph.Edge<String, Object>> boruvka;
+            try{
+                boruvka = BoruvkaMst.mst(g, pool);
+            } finally{
+                pool.shutdown();
+            }
+            double boruvkaWeight = 0.0;
+            for (Graph.Edge<String, Object> edge : boruvka){
+                boruvkaWeight += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+
+            //verify
+            System.out.println(kruskalWeight + " " + primWeight + " " + boruvkaWeight);
+
+            //assert
+            assert kruskal.size() == g.verticesOrdered.size() - 1 : "Problem in Kruskal's mst";
+            assert kruskalWeight == primWeight : "Problem in Kruskal's mst";
+            assert boruvka.size() == g.verticesOrdered.size() - 1 : "Problem in Boruvka's mst";
+            assert boruvkaWeight == primWeight : "Problem in Boruvka's mst";
+        }
+
+        //Case 4: shortestPaths, mst and minTSP on a CsrGraph
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("miniState.csv");
+            CsrGraph<String, Object> csr = g.freeze();
+            double[] distances = GraphAlgorithms.shortestPaths(csr, 0);
+            java.util.Collection<Graph.Edge<String, Object>> csrMst = GraphAlgorithms.mst(csr);
+            double csrMstWeight = 0.0;
+            for (Graph.Edge<String, Object> edge : csrMst){
+                csrMstWeight += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            double tsp = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(g, g.getVertex(2))){
+                tsp += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            double csrTsp = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(csr, 2)){
+                csrTsp += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            //too big for Held-Karp, so both go to branch and bound
+            Graph<String, Object> big = GraphAlgorithms.readData("StateData.csv");
+            CsrGraph<String, Object> bigCsr = big.freeze();
+            double bigTsp = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.minTSP(big, big.getVertex(5))){
+                bigTsp += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            java.util.List<Graph.Edge<String, Object>> bigCsrCycle = GraphAlgorithms.minTSP(bigCsr, 5);
+            double bigCsrTsp = 0.0;
+            for (Graph.Edge<String, Object> edge : bigCsrCycle){
+                bigCsrTsp += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+
+            //verify
+            System.out.println(java.util.Arrays.toString(distances) + " " + csrMstWeight + " " + csrTsp + " " + bigCsrTsp);
+
+            //assert
+            for (int i = 0; i < csr.n; i++){
+                assert distances[i] == GraphAlgorithms.shortestPaths(g, g.getVertex(0)).get(g.getVertex(i)) : "Problem in shortestPaths on a CsrGraph";
+            }
+            assert csrMst.size() == csr.n - 1 && new Graph<String, Object>(csrMst).verticesOrdered.size() == csr.n : "Problem in mst on a CsrGraph";
+            assert tsp == csrTsp : "Problem in minTSP on a CsrGraph";
+            assert GraphAlgorithms.chooseTSPMode(bigCsr) == GraphAlgorithms.TSPMode.BRANCH_AND_BOUND : "Problem in chooseTSPMode on a CsrGraph";
+            assert bigCsrCycle.size() == bigCsr.n && bigCsrCycle.get(0).vertices().contains(big.getVertex(5)) : "Problem in minTSP on a big CsrGraph";
+            assert bigTsp == bigCsrTsp : "Problem in minTSP on a big CsrGraph";
+        }
+
+        //Case 4: GeometricMst matches mst on the complete graph of the same points
+        {
+            //setup
+            java.util.Random random = new java.util.Random(1);
+            int n = 60;
+            double[] x = new double[n];
+            double[] y = new double[n];
+            Graph<String, Object> g = new Graph<>(n);
+            for (int i = 0; i < n; i++){
+                x[i] = random.nextInt(100);
+                y[i] = random.nextInt(100);
+                for (int j = 0; j < i; j++){
+                    g.addEdge(i, j, Math.hypot(x[i] - x[j], y[i] - y[j]));
+                }
+            }
+            double weight = 0.0;
+            for (Graph.Edge<String, Object> edge : GraphAlgorithms.mst(g)){
+                weight += ((Graph.WeightedEdge<String, Object>) edge).weight;
+            }
+            GeometricMst.Tree points = GeometricMst.mst(x, y);
+            GeometricMst.Tree oracle = GeometricMst.mst(n, (i, j) -> Math.hypot(x[i] - x[j], y[i] - y[j]));
+            //tight clusters far apart, which leave most of the bounding box empty
+            int m = 2000;
+            double[] clusteredX = new double[m];
+            double[] clusteredY = new double[m];
+            for (int i = 0; i < m; i++){
+                clusteredX[i] = (i % 3) * 1000 + random.nextGaussian();
+                clusteredY[i] = (i % 3) * 500 + random.nextGaussian();
+            }
+            GeometricMst.Tree clustered = GeometricMst.mst(clusteredX, clusteredY);
+            GeometricMst.Tree clusteredOracle = GeometricMst.mst(m, (i, j) -> Math.hypot(clusteredX[i] - clusteredX[j], clusteredY[i] - clusteredY[j]));
+
+            //verify
+            System.out.println(weight + " " + points + " " + oracle + " " + clustered + " " + clusteredOracle);
+
+            //assert
+            assert points.size() == n - 1 && Math.abs(points.weight - weight) < 1e-9 : "Problem in GeometricMst on points";
+            assert oracle.size() == n - 1 && Math.abs(oracle.weight - weight) < 1e-9 : "Problem in GeometricMst on an oracle";
+            assert clustered.size() == m - 1 && Math.abs(clustered.weight - clusteredOracle.weight) < 1e-9 * clusteredOracle.weight : "Problem in GeometricMst on clustered points";
+        }
+
         //Case 5: tspApprox
         {
             //setup
@@ -89,6 +792,156 @@ public class GraphAlgorithmsTests{
             assert GraphAlgorithms.tspApprox(g) != null : "Problem in tspApprox";
         }
 
+        //Case 5: tspApprox visits every vertex once from any start
+        {
+            //setup
+            Graph<String, Object> g = new Graph<>();
+            g = GraphAlgorithms.readData("airportDatacut.csv");
+            int n = g.verticesOrdered.size();
+            for (int start = 0; start < n; start += 7){
+                java.util.List<Graph.Edge<String, Object>> tour = new java.util.ArrayList<>(GraphAlgorithms.tspApprox(g, g.getVertex(start)));
+                double weight = 0.0;
+                int[] degree = new int[n];
+                for (Graph.Edge<String, Object> edge : tour){
+                    weight += ((Graph.WeightedEdge<String, Object>) edge).weight;
+                    degree[edge.endpoint(0).id()]++;
+                    degree[edge.endpoint(1).id()]++;
+                }
+
+                //verify
+                System.out.println(start + " " + weight);
+
+                //assert
+                assert tour.size() == n : "Problem in tspApprox";
+                assert tour.get(0).other(g.getVertex(start)) != null && tour.get(n - 1).other(g.getVertex(start)) != null : "Problem in tspApprox";
+                for (int i = 0; i < n; i++){
+                    assert degree[i] == 2 : "Problem in tspApprox";
+                }
+            }
+        }
+
+        //Case 6: OpenHashSet behaves like a LinkedHashSet under random adds, removes and iterator removes
+        {
+            //setup
+            OpenHashSet<Integer> set = new OpenHashSet<>(4);
+            java.util.LinkedHashSet<Integer> expected = new java.util.LinkedHashSet<>();
+            java.util.Random rand = new java.util.Random(15);
+            int mismatches = 0, largest = 0;
+            for (int op = 0; op < 200000; op++){
+                //half the keys share their low 16 bits, so they land in long probe runs
+                Integer key = rand.nextBoolean() ? rand.nextInt(1000) : rand.nextInt(1000) << 16;
+                int choice = rand.nextInt(100);
+                if (choice < 55){
+                    if (set.add(key) != expected.add(key)) mismatches++;
+                }
+                else if (choice < 85){
+                    if (set.remove(key) != expected.remove(key)) mismatches++;
+                }
+                else if (choice < 99){
+                    if (set.contains(key) != expected.contains(key)) mismatches++;
+                }
+                else{
+                    //walk both in step, removing the same random picks through each iterator
+                    java.util.Iterator<Integer> it = set.iterator();
+                    java.util.Iterator<Integer> expectedIt = expected.iterator();
+                    while (expectedIt.hasNext()){
+                        if (!it.hasNext() || !it.next().equals(expectedIt.next())) mismatches++;
+                        if (rand.nextInt(4) == 0){
+                            it.remove();
+                            expectedIt.remove();
+                        }
+                    }
+                    if (it.hasNext()) mismatches++;
+                }
+                if (set.size() != expected.size()) mismatches++;
+                largest = Math.max(largest, set.size());
+            }
+            boolean sameOrder = java.util.Arrays.equals(set.toArray(), expected.toArray());
+
+            //verify
+            System.out.println(set.size() + " " + largest + " " + mismatches + " " + sameOrder);
+
+            //assert
+            assert mismatches == 0 : "Problem in OpenHashSet";
+            assert sameOrder : "Problem in OpenHashSet iteration order";
+        }
+
+        //Case 6: HashSet behaves like java.util.HashSet while a resize is still moving buckets across
+        {
+            //setup
+            HashSet<Integer> set = new HashSet<>();
+            java.util.HashSet<Integer> expected = new java.util.LinkedHashSet<>();
+            java.util.Random rand = new java.util.Random(16);
+            java.lang.reflect.Field old;
+            try{
+                old = HashSet.class.getDeclaredField("old");
+                old.setAccessible(true);
+            } catch (NoSuchFieldException e){
+                throw new IllegalStateException(e);
+            }
+            int mismatches = 0;
+            //how many of each check ran while the old table still had buckets to move
+            int[] duringResize = new int[4];
+            for (int round = 0; round < 20; round++){
+                //grow well past a doubling, then shrink well past a halving, with the odd step the other way
+                int target = round % 2 == 0 ? 100 + rand.nextInt(3000) : rand.nextInt(40);
+                while (expected.size() != target){
+                    boolean grow = expected.size() < target;
+                    Integer key = rand.nextInt(10000);
+                    if (rand.nextInt(5) == 0 ? grow : !grow){
+                        //random keys rarely hit a small set, so half the removes take the oldest item instead
+                        if (rand.nextBoolean() && !expected.isEmpty()) key = expected.iterator().next();
+                        if (set.remove(key) != expected.remove(key)) mismatches++;
+                    }
+                    else{
+                        if (set.add(key) != expected.add(key)) mismatches++;
+                    }
+
+                    boolean resizing;
+                    try{
+                        resizing = old.get(set) != null;
+                    } catch (IllegalAccessException e){
+                        throw new IllegalStateException(e);
+                    }
+                    Integer probe = rand.nextInt(10000);
+                    if (set.contains(probe) != expected.contains(probe)) mismatches++;
+                    if (resizing) duringResize[0]++;
+                    Integer present = rand.nextInt(20) == 0 && !expected.isEmpty() ? expected.iterator().next() : null;
+                    if (present != null){
+                        if (!set.remove(present) || !expected.remove(present)) mismatches++;
+                        if (resizing) duringResize[1]++;
+                    }
+                    if (rand.nextInt(50) == 0){
+                        if (!java.util.Arrays.equals(set.toArray(new Integer[0]), expected.toArray(new Integer[0]))) mismatches++;
+                        if (resizing) duringResize[2]++;
+                    }
+                    if (rand.nextInt(200) == 0){
+                        java.util.Iterator<Integer> it = set.iterator();
+                        java.util.Iterator<Integer> expectedIt = expected.iterator();
+                        while (expectedIt.hasNext()){
+                            if (!it.hasNext() || !it.next().equals(expectedIt.next())) mismatches++;
+                            if (rand.nextInt(20) == 0){
+                                it.remove();
+                                expectedIt.remove();
+                            }
+                        }
+                        if (it.hasNext()) mismatches++;
+                        if (resizing) duringResize[3]++;
+                    }
+                    if (set.size() != expected.size()) mismatches++;
+                }
+            }
+
+            //verify
+            System.out.println(set.size() + " " + mismatches + " " + java.util.Arrays.toString(duringResize));
+
+            //assert
+            assert mismatches == 0 : "Problem in HashSet";
+            for (int count : duringResize){
+                assert count > 0 : "Problem in HashSet test, a check never ran during a resize";
+            }
+        }
+
         System.out.println("***ALL TESTS PASSED SUCCESSFULLY***");
 
     }
@@ -0,0 +1,589 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleBiFunction;
+
+public class GraphBenchmarks{
+
+    /**
+     * Vertex data for the geographic benchmarks.
+     */
+    static class City implements GraphAlgorithms.Located{
+        double latitude, longitude;
+
+        City(double latitude, double longitude){
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public double latitude(){
+            return latitude;
+        }
+
+        public double longitude(){
+            return longitude;
+        }
+    }
+
+    /**
+     * Number of untimed runs before each measurement, to let the JIT warm up.
+     */
+    static final int WARMUP = 3;
+    /**
+     * Number of timed runs averaged into each measurement.
+     */
+    static final int RUNS = 5;
+
+    /**
+     * @param n number of vertices
+     * @param extraEdges number of random edges added on top of a random spanning tree
+     * @param seed
+     * @return a connected graph with random integer weights between 1 and 100
+     */
+    static Graph<String, Object> randomSparseGraph(int n, int extraEdges, long seed){
+        Random random = new Random(seed);
+        Graph<String, Object> g = new Graph<>();
+        for(int i = 0; i < n; i++){
+            g.addVertex("v" + i);
+        }
+        for(int i = 1; i < n; i++){
+            g.addEdge(i, random.nextInt(i), 1.0 + random.nextInt(100));
+        }
+        for(int i = 0; i < extraEdges; i++){
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if(u != v) g.addEdge(u, v, 1.0 + random.nextInt(100));
+        }
+        return g;
+    }
+
+    /**
+     * @param side number of vertices along each side of the grid
+     * @param seed
+     * @return a road-like grid where each vertex is joined to its right and lower neighbors with random integer
+     *         weights between 1 and 100
+     */
+    static Graph<String, Object> randomGridGraph(int side, long seed){
+        Random random = new Random(seed);
+        Graph<String, Object> g = new Graph<>();
+        for(int i = 0; i < side * side; i++){
+            g.addVertex("v" + i);
+        }
+        for(int row = 0; row < side; row++){
+            for(int col = 0; col < side; col++){
+                int i = row * side + col;
+                if(col + 1 < side) g.addEdge(i, i + 1, 1.0 + random.nextInt(100));
+                if(row + 1 < side) g.addEdge(i, i + side, 1.0 + random.nextInt(100));
+            }
+        }
+        return g;
+    }
+
+    /**
+     * @param side number of cities along each side of the grid
+     * @param seed
+     * @return cities on a jittered grid over the continental US, each joined to its right, lower and diagonal
+     *         neighbors by a road between 0% and 30% longer than the great-circle distance
+     */
+    static Graph<City, Object> randomGeoGraph(int side, long seed){
+        Random random = new Random(seed);
+        Graph<City, Object> g = new Graph<>();
+        for(int i = 0; i < side * side; i++){
+            double latitude = 30 + 18.0 * (i / side + random.nextDouble()) / side;
+            double longitude = -120 + 45.0 * (i % side + random.nextDouble()) / side;
+            g.addVertex(new City(latitude, longitude));
+        }
+        ToDoubleBiFunction<Graph.Vertex<City, Object>, Graph.Vertex<City, Object>> miles = GraphAlgorithms.greatCircleHeuristic();
+        for(int row = 0; row < side; row++){
+            for(int col = 0; col < side; col++){
+                int i = row * side + col;
+                for(int j : new int[]{col + 1 < side ? i + 1 : -1, row + 1 < side ? i + side : -1,
+                        col + 1 < side && row + 1 < side ? i + side + 1 : -1}){
+                    if(j != -1) g.addEdge(i, j, miles.applyAsDouble(g.getVertex(i), g.getVertex(j)) * (1 + 0.3 * random.nextDouble()));
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * @param name what is being measured
+     * @param task the work to time
+     * @return the average milliseconds per run
+     */
+    static double time(String name, Runnable task){
+        for(int i = 0; i < WARMUP; i++){
+            task.run();
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < RUNS; i++){
+            task.run();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / RUNS;
+        System.out.printf("%-50s %10.3f ms%n", name, millis);
+        return millis;
+    }
+
+    //Indexed heap vs lazy deletion Dijkstra
+    static void dijkstraEngines(){
+        System.out.println("shortestPaths engines");
+        for(int n : new int[]{1000, 10000, 50000}){
+            for(int degree : new int[]{2, 8}){
+                Graph<String, Object> g = randomSparseGraph(n, n * degree / 2, n + degree);
+                for(GraphAlgorithms.DijkstraEngine engine : GraphAlgorithms.DijkstraEngine.values()){
+                    time(engine + " V=" + n + " avg degree=" + (degree + 2),
+                        () -> GraphAlgorithms.shortestPaths(g, g.getVertex(0), engine));
+                }
+            }
+        }
+        //most of the graph unreachable from the source: a small component joined to nothing else
+        Graph<String, Object> g = randomSparseGraph(50000, 50000, 7);
+        Graph.Vertex<String, Object> island = g.addVertex("island");
+        for(int i = 0; i < 100; i++){
+            g.addEdge(island, g.addVertex("island" + i), 1.0 + i);
+        }
+        for(GraphAlgorithms.DijkstraEngine engine : GraphAlgorithms.DijkstraEngine.values()){
+            time(engine + " small reachable region", () -> GraphAlgorithms.shortestPaths(g, island, engine));
+        }
+    }
+
+    //Full single source search vs stopping at the target, for a nearby and a far away target
+    static void pointToPoint(){
+        System.out.println("point to point queries on a 224x224 grid");
+        int side = 224;
+        Graph<String, Object> g = randomGridGraph(side, 1);
+        Graph.Vertex<String, Object> source = g.getVertex(side * (side / 2) + side / 2);
+        Graph.Vertex<String, Object> near = g.getVertex(side * (side / 2 + 5) + side / 2 + 5);
+        Graph.Vertex<String, Object> far = g.getVertex(side * side - 1);
+        time("shortestPaths (whole graph)", () -> GraphAlgorithms.shortestPaths(g, source));
+        time("shortestPath to a target 10 hops away", () -> GraphAlgorithms.shortestPath(g, source, near));
+        time("shortestPath to the far corner", () -> GraphAlgorithms.shortestPath(g, source, far));
+        time("bidirectionalShortestPath 10 hops away", () -> GraphAlgorithms.bidirectionalShortestPath(g, source, near));
+        time("bidirectionalShortestPath to the far corner", () -> GraphAlgorithms.bidirectionalShortestPath(g, source, far));
+    }
+
+    //Plain Dijkstra vs A* with the great-circle heuristic on geographic data
+    static void aStar(){
+        System.out.println("A* on a 200x200 grid of cities");
+        int side = 200;
+        Graph<City, Object> g = randomGeoGraph(side, 1);
+        Graph.Vertex<City, Object> source = g.getVertex(side * 20 + 20);
+        Graph.Vertex<City, Object> target = g.getVertex(side * 150 + 170);
+        GraphAlgorithms.Route<City, Object> dijkstra = GraphAlgorithms.shortestPath(g, source, target);
+        GraphAlgorithms.Route<City, Object> aStar = GraphAlgorithms.aStar(g, source, target, GraphAlgorithms.greatCircleHeuristic());
+        System.out.println("distance " + dijkstra.distance + " vs " + aStar.distance
+            + ", settled " + dijkstra.settled + " vs " + aStar.settled);
+        time("shortestPath", () -> GraphAlgorithms.shortestPath(g, source, target));
+        time("aStar with greatCircleHeuristic", () -> GraphAlgorithms.aStar(g, source, target, GraphAlgorithms.greatCircleHeuristic()));
+    }
+
+    //Repeated point to point queries before and after building a contraction hierarchy
+    static void contractionHierarchy(){
+        System.out.println("100 random queries on a 224x224 grid");
+        int side = 224;
+        Graph<String, Object> g = randomGridGraph(side, 1);
+        Random random = new Random(2);
+        int[] sources = new int[100];
+        int[] targets = new int[100];
+        for(int i = 0; i < sources.length; i++){
+            sources[i] = random.nextInt(side * side);
+            targets[i] = random.nextInt(side * side);
+        }
+        long start = System.nanoTime();
+        ContractionHierarchy ch = ContractionHierarchy.build(g);
+        System.out.printf("preprocessing took %.0f ms and kept %d upward edges%n", (System.nanoTime() - start) / 1e6, ch.edgeCount());
+        time("100 x shortestPath", () -> {
+            for(int i = 0; i < sources.length; i++){
+                GraphAlgorithms.shortestPath(g, g.getVertex(sources[i]), g.getVertex(targets[i]));
+            }
+        });
+        time("100 x ContractionHierarchy.distance", () -> {
+            for(int i = 0; i < sources.length; i++){
+                ch.distance(sources[i], targets[i]);
+            }
+        });
+    }
+
+    //Shortest path distances between every pair of vertices, one source at a time vs in parallel
+    static void allPairs(){
+        System.out.println("all pairs shortest paths");
+        for(int n : new int[]{500, 2000}){
+            Graph<String, Object> g = randomSparseGraph(n, n * 2, n);
+            time("shortestPaths from every source V=" + n, () -> {
+                for(int i = 0; i < n; i++){
+                    GraphAlgorithms.shortestPaths(g, g.getVertex(i));
+                }
+            });
+            time("AllPairsShortestPaths.distances V=" + n, () -> AllPairsShortestPaths.distances(g));
+        }
+        //parallel Dijkstra's vs Floyd-Warshall as the graph gets denser
+        int n = 1000;
+        for(int degree : new int[]{4, 64, 600, 2000, 6000}){
+            Graph<String, Object> g = randomSparseGraph(n, n * degree / 2, n + degree);
+            String density = String.format(" %.0f%% dense", 200.0 * g.edges.size() / n / (n - 1));
+            time("Dijkstra from every source" + density,
+                () -> AllPairsShortestPaths.distances(g, ForkJoinPool.commonPool()));
+            time("floydWarshall" + density,
+                () -> AllPairsShortestPaths.floydWarshall(g, ForkJoinPool.commonPool()));
+            time("floydWarshallDistances" + density,
+                () -> AllPairsShortestPaths.floydWarshallDistances(g, ForkJoinPool.commonPool()));
+        }
+    }
+
+    //The same algorithms on the HashMap adjacency of Graph and on a frozen CsrGraph
+    static void csr(){
+        System.out.println("Graph vs CsrGraph");
+        int n = 200000;
+        Graph<String, Object> g = randomSparseGraph(n, 4 * n, 3);
+        time("freeze V=" + n + " E=" + g.edges.size(), () -> g.freeze());
+        CsrGraph<String, Object> csr = g.freeze();
+        time("shortestPaths on Graph", () -> GraphAlgorithms.shortestPaths(g, g.getVertex(0)));
+        time("shortestPaths on CsrGraph", () -> GraphAlgorithms.shortestPaths(csr, 0));
+        time("mst on CsrGraph", () -> GraphAlgorithms.mst(csr));
+    }
+
+    //The chained HashSet vs the open addressing OpenHashSet on a million elements
+    static void sets(){
+        System.out.println("HashSet vs OpenHashSet with 1M elements");
+        int n = 1000000;
+        Random random = new Random(4);
+        Integer[] items = new Integer[n];
+        Integer[] misses = new Integer[n];
+        for(int i = 0; i < n; i++){
+            items[i] = random.nextInt();
+            misses[i] = random.nextInt();
+        }
+        HashSet<Integer> chained = new HashSet<>();
+        OpenHashSet<Integer> open = new OpenHashSet<>();
+        for(Integer item : items){
+            chained.add(item);
+            open.add(item);
+        }
+        int[] sink = new int[1];
+        time("HashSet add", () -> {
+            HashSet<Integer> set = new HashSet<>();
+            for(Integer item : items) set.add(item);
+        });
+        time("OpenHashSet add", () -> {
+            OpenHashSet<Integer> set = new OpenHashSet<>();
+            for(Integer item : items) set.add(item);
+        });
+        time("HashSet contains, half hits", () -> {
+            for(int i = 0; i < n; i++) if(chained.contains(i % 2 == 0 ? items[i] : misses[i])) sink[0]++;
+        });
+        time("OpenHashSet contains, half hits", () -> {
+            for(int i = 0; i < n; i++) if(open.contains(i % 2 == 0 ? items[i] : misses[i])) sink[0]++;
+        });
+        time("HashSet iterate", () -> {
+            for(Integer item : chained) sink[0] += item;
+        });
+        time("OpenHashSet iterate", () -> {
+            for(Integer item : open) sink[0] += item;
+        });
+        time("HashSet add then remove all", () -> {
+            HashSet<Integer> set = new HashSet<>();
+            for(Integer item : items) set.add(item);
+            for(Integer item : items) set.remove(item);
+        });
+        time("OpenHashSet add then remove all", () -> {
+            OpenHashSet<Integer> set = new OpenHashSet<>();
+            for(Integer item : items) set.add(item);
+            for(Integer item : items) set.remove(item);
+        });
+    }
+
+    //Slowest adds while growing a HashSet, and a run of adds and removes right at a resize threshold
+    static void setLatency(){
+        System.out.println("HashSet latency");
+        int n = 2000000;
+        Integer[] items = new Integer[n];
+        for(int i = 0; i < n; i++){
+            items[i] = i * 31;
+        }
+        long[] nanos = new long[n];
+        for(int run = 0; run <= WARMUP; run++){
+            HashSet<Integer> set = new HashSet<>();
+            for(int i = 0; i < n; i++){
+                long before = System.nanoTime();
+                set.add(items[i]);
+                nanos[i] = System.nanoTime() - before;
+            }
+        }
+        java.util.Arrays.sort(nanos);
+        System.out.printf("%-50s %10.3f ms%n", "total of " + n + " adds", java.util.Arrays.stream(nanos).sum() / 1e6);
+        System.out.printf("%-50s %10.3f ms%n", "total of the 100 slowest adds", java.util.Arrays.stream(nanos, n - 100, n).sum() / 1e6);
+        System.out.printf("%-50s %10.3f ms%n", "slowest add but one", nanos[n - 2] / 1e6);
+        //one below 8192 items, half of a 16384 table: two adds grow it and two removes would shrink it again
+        HashSet<Integer> set = new HashSet<>();
+        for(int i = 0; i < 8191; i++){
+            set.add(items[i]);
+        }
+        time("10k add, add, remove, remove at the threshold", () -> {
+            for(int i = 0; i < 10000; i++){
+                set.add(items[8191]);
+                set.add(items[8192]);
+                set.remove(items[8192]);
+                set.remove(items[8191]);
+            }
+        });
+    }
+
+    static void ingest(){
+        System.out.println("Concurrent graph ingest of 1M edges over 100k vertices");
+        int n = 100000;
+        int m = 1000000;
+        Random random = new Random(5);
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        double[] weights = new double[m];
+        for(int i = 0; i < m; i++){
+            us[i] = random.nextInt(n);
+            vs[i] = random.nextInt(n);
+            weights[i] = random.nextDouble();
+        }
+        time("HashSet graph, 1 thread", () -> {
+            Graph<String, Object> g = new Graph<>();
+            for(int i = 0; i < n; i++) g.addVertex(null);
+            for(int i = 0; i < m; i++) g.addEdge(us[i], vs[i], weights[i]);
+        });
+        for(int threads = 1; threads <= 8; threads *= 2){
+            int count = threads;
+            time("ConcurrentHashSet graph, " + threads + " threads", () -> {
+                Graph<String, Object> g = new Graph<>(Graph.SetKind.CONCURRENT);
+                @SuppressWarnings("unchecked")
+                Graph.Vertex<String, Object>[] vertices = (Graph.Vertex<String, Object>[]) new Graph.Vertex<?, ?>[n];
+                Thread[] workers = new Thread[count];
+                for(int t = 0; t < count; t++){
+                    int first = t;
+                    workers[t] = new Thread(() -> {
+                        for(int i = first; i < n; i += count) vertices[i] = g.addVertex(null);
+                    });
+                }
+                join(workers);
+                for(int t = 0; t < count; t++){
+                    int first = t;
+                    workers[t] = new Thread(() -> {
+                        for(int i = first; i < m; i += count) g.addEdge(vertices[us[i]], vertices[vs[i]], weights[i]);
+                    });
+                }
+                join(workers);
+            });
+        }
+    }
+
+    //starts the threads and waits for all of them to finish
+    static void join(Thread[] threads){
+        for(Thread thread : threads) thread.start();
+        try{
+            for(Thread thread : threads) thread.join();
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //runs the task once to warm up, then again and prints how many bytes it allocated per operation
+    static void allocated(String name, int operations, Runnable task){
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        for(int run = 0; run < WARMUP; run++){
+            task.run();
+        }
+        long before = threads.getThreadAllocatedBytes(id);
+        task.run();
+        long bytes = threads.getThreadAllocatedBytes(id) - before;
+        System.out.printf("%-50s %10.3f bytes/op%n", name, (double) bytes / operations);
+    }
+
+    static void setAllocations(){
+        System.out.println("HashSet allocations");
+        int n = 100000;
+        Integer[] items = new Integer[n];
+        Integer[] misses = new Integer[n];
+        for(int i = 0; i < n; i++){
+            items[i] = i * 31;
+            misses[i] = -i - 1;
+        }
+        HashSet<Integer> set = new HashSet<>();
+        for(Integer item : items) set.add(item);
+        int[] sink = new int[1];
+        allocated("contains, hits", n, () -> {
+            for(Integer item : items) if(set.contains(item)) sink[0]++;
+        });
+        allocated("contains, misses", n, () -> {
+            for(Integer miss : misses) if(set.contains(miss)) sink[0]++;
+        });
+        allocated("get", n, () -> {
+            for(Integer item : items) if(set.get(item) != null) sink[0]++;
+        });
+        allocated("iterate", n, () -> {
+            for(Integer item : set) sink[0] += item;
+        });
+        allocated("forEach", n, () -> set.forEach((Integer item) -> sink[0] += item));
+        Graph<String, Object> g = randomSparseGraph(10000, 40000, 6);
+        List<Graph.Edge<String, Object>> edges = new ArrayList<Graph.Edge<String, Object>>(g.edges);
+        allocated("addEdge of an existing edge", edges.size(), () -> {
+            for(int i = 0; i < edges.size(); i++) if(!g.addEdge(edges.get(i))) sink[0]++;
+        });
+    }
+
+    static void removals(){
+        System.out.println("Dynamic updates on a 100k vertex, 400k edge graph");
+        int n = 100000;
+        Graph<String, Object> g = randomSparseGraph(n, 300000, 7);
+        Random random = new Random(8);
+        time("rebuild the graph for one change", () -> randomSparseGraph(n, 300000, 7));
+        time("1000 removeEdge and addEdge back", () -> {
+            for(int i = 0; i < 1000; i++){
+                Graph.Vertex<String, Object> u = g.getVertex(random.nextInt(g.verticesOrdered.size()));
+                for(Graph.Edge<String, Object> edge : u.edgesOut()){
+                    g.removeEdge(edge);
+                    g.addEdge(edge);
+                    break;
+                }
+            }
+        });
+        time("1000 removeVertex", () -> {
+            for(int i = 0; i < 1000; i++){
+                g.removeVertex(random.nextInt(g.verticesOrdered.size()));
+            }
+        });
+    }
+
+    static void mst(){
+        System.out.println("Prim's vs Kruskal's mst");
+        for(int n : new int[]{10000, 100000}){
+            Graph<String, Object> g = randomSparseGraph(n, 4 * n, 9);
+            time("PRIM V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.PRIM));
+            time("KRUSKAL V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.KRUSKAL));
+        }
+        int n = 1000;
+        for(double density : new double[]{0.02, 0.05, 0.1, 0.2, 1.0}){
+            Graph<String, Object> g = randomSparseGraph(n, (int) (density * n * (n - 1) / 2), 10);
+            time("PRIM V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.PRIM));
+            time("KRUSKAL V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.KRUSKAL));
+        }
+        Graph<String, Object> complete = new Graph<>(n);
+        Random random = new Random(11);
+        for(int i = 0; i < n; i++){
+            for(int j = 0; j < i; j++) complete.addEdge(i, j, 1.0 + random.nextInt(1000));
+        }
+        time("PRIM complete V=" + n, () -> GraphAlgorithms.mst(complete, GraphAlgorithms.MstEngine.PRIM));
+        time("KRUSKAL complete V=" + n, () -> GraphAlgorithms.mst(complete, GraphAlgorithms.MstEngine.KRUSKAL));
+    }
+
+    static void boruvka(){
+        System.out.println("Parallel Boruvka's mst");
+        int n = 200000;
+        Graph<String, Object> g = randomSparseGraph(n, 5 * n, 12);
+        CsrGraph<String, Object> csr = g.freeze();
+        time("PRIM V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.PRIM));
+        time("KRUSKAL V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.mst(g, GraphAlgorithms.MstEngine.KRUSKAL));
+        time("mst on CsrGraph", () -> GraphAlgorithms.mst(csr));
+        for(int threads = 1; threads <= 32; threads *= 2){
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            time("BORUVKA on CsrGraph, " + threads + " threads", () -> BoruvkaMst.mst(csr, pool));
+            pool.shutdown();
+        }
+    }
+
+    static void geometricMst(){
+        System.out.println("mst of complete Euclidean graphs without building them");
+        Random random = new Random(13);
+        int n = 100000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for(int i = 0; i < n; i++){
+            x[i] = random.nextDouble() * 1000;
+            y[i] = random.nextDouble() * 1000;
+        }
+        time("kd-tree Boruvka uniform n=" + n, () -> GeometricMst.mst(x, y));
+        //the same number of points in 5 tight Gaussian clusters, which leave most of their bounding box empty
+        double[] clusteredX = new double[n];
+        double[] clusteredY = new double[n];
+        double[][] centers = new double[5][2];
+        for(double[] center : centers){
+            center[0] = random.nextDouble() * 1000;
+            center[1] = random.nextDouble() * 1000;
+        }
+        for(int i = 0; i < n; i++){
+            double[] center = centers[i % centers.length];
+            clusteredX[i] = center[0] + random.nextGaussian() * 5;
+            clusteredY[i] = center[1] + random.nextGaussian() * 5;
+        }
+        time("kd-tree Boruvka 5 clusters n=" + n, () -> GeometricMst.mst(clusteredX, clusteredY));
+        int m = 10000;
+        time("oracle Prim n=" + m, () -> GeometricMst.mst(m, (i, j) -> Math.hypot(x[i] - x[j], y[i] - y[j])));
+        int k = 1500;
+        time("complete Graph then mst n=" + k, () -> {
+            Graph<String, Object> g = new Graph<>(k);
+            for(int i = 0; i < k; i++){
+                for(int j = 0; j < i; j++) g.addEdge(i, j, Math.hypot(x[i] - x[j], y[i] - y[j]));
+            }
+            GraphAlgorithms.mst(g);
+        });
+        time("kd-tree Boruvka n=" + k, () -> GeometricMst.mst(Arrays.copyOf(x, k), Arrays.copyOf(y, k)));
+    }
+
+    static void parallelTSP(){
+        System.out.println("ParallelTSP by pool size");
+        int n = 12;
+        Random random = new Random(15);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Graph<String, Object> g = new Graph<>(n);
+        for(int i = 0; i < n; i++){
+            x[i] = random.nextDouble() * 1000;
+            y[i] = random.nextDouble() * 1000;
+            for(int j = 0; j < i; j++) g.addEdge(i, j, Math.hypot(x[i] - x[j], y[i] - y[j]));
+        }
+        time("minTSP V=" + n, () -> GraphAlgorithms.minTSP(g, g.getVertex(0)));
+        //the sequential version of the search ParallelTSP splits up
+        time("minTSP ENUMERATION V=" + n, () -> GraphAlgorithms.minTSP(g, g.getVertex(0), GraphAlgorithms.TSPMode.ENUMERATION));
+        int cores = Runtime.getRuntime().availableProcessors();
+        for(int threads = 1; threads <= cores; threads = threads < cores && threads * 2 > cores ? cores : threads * 2){
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            time("ParallelTSP V=" + n + ", " + threads + " threads", () -> ParallelTSP.minTSP(g, g.getVertex(0), pool));
+            pool.shutdown();
+        }
+    }
+
+    static void tspApprox(){
+        System.out.println("tspApprox on a complete graph");
+        int n = 1500;
+        Random random = new Random(14);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Graph<String, Object> g = new Graph<>(n);
+        for(int i = 0; i < n; i++){
+            x[i] = random.nextDouble() * 1000;
+            y[i] = random.nextDouble() * 1000;
+            for(int j = 0; j < i; j++) g.addEdge(i, j, Math.hypot(x[i] - x[j], y[i] - y[j]));
+        }
+        time("mst V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.mst(g));
+        time("tspApprox V=" + n + " E=" + g.edges.size(), () -> GraphAlgorithms.tspApprox(g, g.getVertex(n / 2)));
+    }
+
+    public static void main(String[] args){
+        dijkstraEngines();
+        pointToPoint();
+        aStar();
+        contractionHierarchy();
+        allPairs();
+        csr();
+        sets();
+        setLatency();
+        ingest();
+        setAllocations();
+        removals();
+        mst();
+        boruvka();
+        geometricMst();
+        parallelTSP();
+        tspApprox();
+    }
+}
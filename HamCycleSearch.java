@@ -0,0 +1,127 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation-free depth-first search for Ham Cycles.
+ *
+ * <p>
+ * The graph is copied once into adjacency arrays over vertex positions. The search then keeps the visited set as a
+ * bitmask, the current path as an int stack and the path cost as a running sum, so each step is O(1) and nothing is
+ * allocated until a cycle is turned back into edges with {@link #edges(int[])}.
+ */
+public class HamCycleSearch<V, E>{
+
+    /**
+     * Receives each Ham Cycle found by the search.
+     */
+    public interface Visitor{
+        /**
+         * @param path the positions of the vertices in cycle order, starting at the start vertex. Reused by the
+         *             search, so copy it to keep it
+         * @param cost the total weight of the cycle, including the edge back to the start
+         * @return whether to keep searching
+         */
+        boolean visit(int[] path, double cost);
+    }
+
+    private final List<Graph.Vertex<V, E>> vertices;
+    //neighbors[i] and weights[i] are the ends and weights of the edges leaving vertex i
+    private final int[][] neighbors;
+    private final double[][] weights;
+    //closing[i] is the edge weight from vertex i back to the start, or NaN if there is no such edge
+    private final double[] closing;
+
+    private final int[] path;
+    private final long[] visited;
+
+    /**
+     * Copies the structure of g into arrays, with start at position 0.
+     *
+     * @param g
+     * @param start
+     */
+    public HamCycleSearch(Graph<V, E> g, Graph.Vertex<V, E> start){
+        vertices = new ArrayList<Graph.Vertex<V, E>>(g.vertices.size());
+        vertices.add(start);
+        for(Graph.Vertex<V, E> vertex : g.vertices){
+            if(vertex != start) vertices.add(vertex);
+        }
+        int n = vertices.size();
+        //position in vertices by vertex id
+        int[] index = new int[n];
+        for(int i = 0; i < n; i++) index[vertices.get(i).id()] = i;
+
+        neighbors = new int[n][];
+        weights = new double[n][];
+        closing = new double[n];
+        for(int i = 0; i < n; i++){
+            Graph.Vertex<V, E> vertex = vertices.get(i);
+            neighbors[i] = new int[vertex.edgesOut().size()];
+            weights[i] = new double[vertex.edgesOut().size()];
+            closing[i] = Double.NaN;
+            int count = 0;
+            for(Graph.Edge<V, E> edge : vertex.edgesOut()){
+                int j = index[edge.other(vertex).id()];
+                double weight = edge instanceof Graph.WeightedEdge ? ((Graph.WeightedEdge<V, E>) edge).weight : 0.0;
+                neighbors[i][count] = j;
+                weights[i][count] = weight;
+                count++;
+                if(j == 0) closing[i] = weight;
+            }
+        }
+
+        path = new int[n];
+        visited = new long[(n + 63) >>> 6];
+    }
+
+    /**
+     * Runs the search, handing every Ham Cycle to visitor until it asks to stop.
+     *
+     * @param visitor
+     * @return false if visitor stopped the search early, otherwise true
+     */
+    public boolean run(Visitor visitor){
+        path[0] = 0;
+        visited[0] |= 1L;
+        boolean finished = search(1, 0.0, visitor);
+        visited[0] &= ~1L;
+        return finished;
+    }
+
+    private boolean search(int depth, double cost, Visitor visitor){
+        int last = path[depth - 1];
+        if(depth == path.length){
+            if(Double.isNaN(closing[last])) return true;
+            return visitor.visit(path, cost + closing[last]);
+        }
+        int[] next = neighbors[last];
+        double[] weight = weights[last];
+        for(int i = 0; i < next.length; i++){
+            int k = next[i];
+            long bit = 1L << k;
+            if((visited[k >>> 6] & bit) != 0) continue;
+            visited[k >>> 6] |= bit;
+            path[depth] = k;
+            boolean keepGoing = search(depth + 1, cost + weight[i], visitor);
+            visited[k >>> 6] &= ~bit;
+            if(!keepGoing) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param cycle positions of the vertices in cycle order, as passed to a Visitor
+     * @return the cycle as an ordered list of edges
+     */
+    public List<Graph.Edge<V, E>> edges(int[] cycle){
+        List<Graph.Edge<V, E>> edges = new ArrayList<Graph.Edge<V, E>>(cycle.length);
+        for(int i = 0; i < cycle.length; i++){
+            edges.add(vertices.get(cycle[i]).getEdgeTo(vertices.get(cycle[(i+1) % cycle.length])));
+        }
+        return edges;
+    }
+}
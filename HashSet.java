@@ -4,37 +4,41 @@
 import java.util.Collection;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 @SuppressWarnings("unchecked")
 public class HashSet<T> implements Deque<T>, Cloneable {
 
-    private static class HashNode<T> implements Iterable<T> {
+    private static class HashNode<T> {
         HashNode<T> next, after, before, prev;
         T data;
+        /**
+         * The hash code of data, kept so that lookups can skip most equals calls and
+         * resizing never has to call hashCode again.
+         */
+        final int hash;
 
-        public HashNode(T data) {
+        public HashNode(T data, int hash) {
             this.data = data;
-        }
-
-        @Override
-        public Iterator<T> iterator() {
-            return new Iterator<T>() {
-                HashNode<T> cur = HashNode.this;
-
-                public T next() {
-                    T toReturn = cur.data;
-                    cur = cur.next;
-                    return toReturn;
-                }
-
-                public boolean hasNext() {
-                    return cur != null;
-                }
-            };
+            this.hash = hash;
         }
     }
 
+    /**
+     * How many buckets of the old table each add or remove moves into the new one
+     * while a resize is in progress. Growing starts with the new table a quarter
+     * full and must finish before it is half full, so this has to be at least 2.
+     */
+    private static final int MIGRATE_PER_OPERATION = 4;
+
     private HashNode<T>[] set;
+    /**
+     * The table being emptied into set while a resize is in progress, otherwise
+     * {@code null}. Its buckets below migrated are already empty.
+     */
+    private HashNode<T>[] old;
+    private int migrated;
     /**
      * The number of items in this HashSet
      */
@@ -46,6 +50,7 @@ public class HashSet<T> implements Deque<T>, Cloneable {
      */
     public HashSet() {
         set = (HashNode<T>[]) new HashNode[16];
+        old = null;
         size = 0;
         head = tail = null;
     }
@@ -59,20 +64,76 @@ public class HashSet<T> implements Deque<T>, Cloneable {
         return size;
     }
 
-    private int hash(Object item) {
-        return Math.abs(item.hashCode() % set.length);
+    /**
+     * Returns the bucket of the specified hash code in a table of the specified
+     * length, which is always a power of two. The high bits are folded in so that
+     * hash codes differing only there still spread out.
+     */
+    private static int index(int hash, int length) {
+        return (hash ^ (hash >>> 16)) & (length - 1);
     }
 
+    /**
+     * Starts moving the items into a table of the specified length. Rather than
+     * rehashing everything at once, each later add or remove moves a few buckets
+     * across, and lookups check both tables until the old one is empty.
+     */
     private void resize(int newSize) {
-        HashNode<T> cur = head;
-        head = null;
-        tail = null;
-        size = 0;
+        if (old != null)
+            return;
+        old = set;
+        migrated = 0;
         set = (HashNode<T>[]) new HashNode[newSize];
-        while (cur != null) {
-            add(cur.data);
-            cur = cur.after;
+        migrate(MIGRATE_PER_OPERATION);
+    }
+
+    /**
+     * Moves up to the specified number of buckets from the old table into the new
+     * one, dropping the old table once it is empty.
+     */
+    private void migrate(int buckets) {
+        if (old == null)
+            return;
+        for (; buckets > 0 && migrated < old.length; buckets--, migrated++) {
+            HashNode<T> node = old[migrated];
+            old[migrated] = null;
+            while (node != null) {
+                HashNode<T> next = node.next;
+                int index = index(node.hash, set.length);
+                node.prev = null;
+                node.next = set[index];
+                if (set[index] != null)
+                    set[index].prev = node;
+                set[index] = node;
+                node = next;
+            }
+        }
+        if (migrated == old.length)
+            old = null;
+    }
+
+    /**
+     * Returns the node holding an item equal to o, whose hash code is the
+     * specified one, looking in the old table too if a resize is in progress, or
+     * {@code null} if there is none. This allocates nothing and calls hashCode
+     * only once, in the caller.
+     */
+    private HashNode<T> findNode(Object o, int hash) {
+        for (HashNode<T> node = set[index(hash, set.length)]; node != null; node = node.next)
+            if (node.hash == hash && (node.data == o || node.data.equals(o)))
+                return node;
+        if (old != null) {
+            int index = index(hash, old.length);
+            if (index >= migrated)
+                for (HashNode<T> node = old[index]; node != null; node = node.next)
+                    if (node.hash == hash && (node.data == o || node.data.equals(o)))
+                        return node;
         }
+        return null;
+    }
+
+    private HashNode<T> findNode(Object o) {
+        return o == null ? null : findNode(o, o.hashCode());
     }
 
     /**
@@ -99,6 +160,8 @@ public class HashSet<T> implements Deque<T>, Cloneable {
                 if (before == null)
                     return;
                 removeNode(before);
+                decrementSize(1);
+                before = null;
             }
         };
     }
@@ -115,13 +178,8 @@ public class HashSet<T> implements Deque<T>, Cloneable {
      *         {@code null} if no such item exists
      */
     public T get(T item) {
-        if (set[hash(item)] == null)
-            return null;
-        for (T t : set[hash(item)]) {
-            if (t.equals(item))
-                return t;
-        }
-        return null;
+        HashNode<T> node = findNode(item);
+        return node == null ? null : node.data;
     }
 
     /**
@@ -155,12 +213,7 @@ public class HashSet<T> implements Deque<T>, Cloneable {
      * @return {@code true} if this HashSet contains the specified element.
      */
     public boolean contains(Object o) {
-        if (set[hash(o)] == null)
-            return false;
-        for (T item : set[hash(o)])
-            if (item.equals(o))
-                return true;
-        return false;
+        return findNode(o) != null;
     }
 
     /**
@@ -182,8 +235,10 @@ public class HashSet<T> implements Deque<T>, Cloneable {
     private void removeNode(HashNode<T> node) {
         if (node.prev != null)
             node.prev.next = node.next;
+        else if (old != null && old[index(node.hash, old.length)] == node)
+            old[index(node.hash, old.length)] = node.next;
         else
-            set[hash(node.data)] = node.next;
+            set[index(node.hash, set.length)] = node.next;
 
         if (node.next != null)
             node.next.prev = node.prev;
@@ -202,9 +257,16 @@ public class HashSet<T> implements Deque<T>, Cloneable {
             head = tail = null;
     }
 
+    /**
+     * Lowers the size after items were removed, halving the table once it is less
+     * than an eighth full. That leaves it a quarter full, well away from the
+     * half-full point where it grows again, so a run of adds and removes near one
+     * size doesn't keep resizing back and forth.
+     */
     private void decrementSize(int x) {
         size -= x;
-        if (size * 4 < set.length && set.length / 2 >= 16)
+        migrate(MIGRATE_PER_OPERATION);
+        if (size * 8 < set.length && set.length / 2 >= 16)
             resize(set.length / 2);
     }
 
@@ -313,7 +375,7 @@ public class HashSet<T> implements Deque<T>, Cloneable {
                 a[index] = null;
             return a;
         }
-        return toArray((A[]) new Object[size]);
+        return toArray((A[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size));
     }
 
     /**
@@ -329,14 +391,12 @@ public class HashSet<T> implements Deque<T>, Cloneable {
      */
     @Override
     public boolean remove(Object o) {
-        for (HashNode<T> node = set[hash(o)]; node != null; node = node.next) {
-            if (node.data.equals(o)) {
-                removeNode(node);
-                decrementSize(1);
-                return true;
-            }
-        }
-        return false;
+        HashNode<T> node = findNode(o);
+        if (node == null)
+            return false;
+        removeNode(node);
+        decrementSize(1);
+        return true;
     }
 
     /**
@@ -368,13 +428,12 @@ public class HashSet<T> implements Deque<T>, Cloneable {
      */
     @Override
     public boolean removeAll(Collection<?> c) {
-        int removed = 0;
+        boolean removed = false;
         for (Object item : c) {
             if (remove(item))
-                removed++;
+                removed = true;
         }
-        decrementSize(removed);
-        return removed > 0;
+        return removed;
     }
 
     /**
@@ -406,19 +465,39 @@ public class HashSet<T> implements Deque<T>, Cloneable {
     @Override
     public void clear() {
         set = (HashNode<T>[]) new HashNode[16];
+        old = null;
         size = 0;
         head = tail = null;
     }
 
+    /**
+     * Puts a new node at the front of its bucket in the current table, then
+     * counts it and moves a few old buckets across or starts growing.
+     */
+    private void linkIntoTable(HashNode<T> newNode) {
+        int index = index(newNode.hash, set.length);
+        newNode.next = set[index];
+        if (set[index] != null)
+            set[index].prev = newNode;
+        set[index] = newNode;
+        size++;
+        migrate(MIGRATE_PER_OPERATION);
+        if (size * 2 > set.length)
+            resize(set.length * 2);
+    }
+
     /**
      * Inserts the specified element at the front of this HashSet if it is possible
      * to do so (ie, if the item is not already contained in this HashSet).
      */
     @Override
     public void addFirst(T item) {
-        if (item == null || get(item) != null)
+        if (item == null)
+            return;
+        int hash = item.hashCode();
+        if (findNode(item, hash) != null)
             return;
-        HashNode<T> newNode = new HashNode<T>(item);
+        HashNode<T> newNode = new HashNode<T>(item, hash);
 
         newNode.after = head;
         if (head != null)
@@ -427,11 +506,7 @@ public class HashSet<T> implements Deque<T>, Cloneable {
         if (tail == null)
             tail = head;
 
-        newNode.next = set[hash(item)];
-        set[hash(item)] = newNode;
-        size++;
-        if (size * 2 > set.length)
-            resize(set.length * 2);
+        linkIntoTable(newNode);
     }
 
     /**
@@ -440,9 +515,12 @@ public class HashSet<T> implements Deque<T>, Cloneable {
      */
     @Override
     public void addLast(T item) {
-        if (item == null || get(item) != null)
+        if (item == null)
+            return;
+        int hash = item.hashCode();
+        if (findNode(item, hash) != null)
             return;
-        HashNode<T> newNode = new HashNode<T>(item);
+        HashNode<T> newNode = new HashNode<T>(item, hash);
 
         newNode.before = tail;
         if (tail != null)
@@ -451,12 +529,7 @@ public class HashSet<T> implements Deque<T>, Cloneable {
         if (head == null)
             head = tail;
 
-        newNode.next = set[hash(item)];
-        set[hash(item)] = newNode;
-
-        size++;
-        if (size * 2 > set.length)
-            resize(set.length * 2);
+        linkIntoTable(newNode);
     }
 
     /**
@@ -639,6 +712,31 @@ public class HashSet<T> implements Deque<T>, Cloneable {
         };
     }
 
+    /**
+     * Performs the given action on each item of this HashSet, in order, without
+     * allocating an iterator.
+     * 
+     * @param action the action to be performed on each item
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (HashNode<T> node = head; node != null; node = node.after)
+            action.accept(node.data);
+    }
+
+    /**
+     * Performs the given action on each item of this HashSet together with its
+     * position in the order, counting from 0, without allocating an iterator or
+     * boxing the position.
+     * 
+     * @param action the action to be performed on each item and its position
+     */
+    public void forEach(ObjIntConsumer<? super T> action) {
+        int position = 0;
+        for (HashNode<T> node = head; node != null; node = node.after)
+            action.accept(node.data, position++);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,226 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap over the integers {@code 0..capacity-1}, each with a
+ * {@code double} key.
+ *
+ * <p>
+ * Alongside the heap array it keeps the heap position of every item, so
+ * {@link #contains(int)} is O(1) and {@link #decreaseKey(int, double)} is a
+ * true O(log n) sift up rather than a linear search and reinsert.
+ */
+public class IndexedMinHeap {
+    /**
+     * The items in heap order.
+     */
+    private int[] heap;
+    /**
+     * The position of each item in heap, or -1 if it is not in the heap.
+     */
+    private int[] position;
+    /**
+     * The key of each item.
+     */
+    private double[] keys;
+    /**
+     * The number of items in this heap.
+     */
+    private int size;
+
+    /**
+     * Creates an empty heap that can hold the items {@code 0..capacity-1}.
+     *
+     * @param capacity one more than the largest item this heap can hold
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(position, -1);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of items in this heap.
+     *
+     * @return the number of items in this heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this heap contains no items.
+     *
+     * @return {@code true} if this heap contains no items.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if the specified item is in this heap.
+     *
+     * @param item the item to look for
+     * @return {@code true} if the specified item is in this heap.
+     */
+    public boolean contains(int item) {
+        return position[item] != -1;
+    }
+
+    /**
+     * Returns the key of the specified item, which must be in this heap.
+     *
+     * @param item the item whose key is to be returned
+     * @return the key of the specified item.
+     */
+    public double key(int item) {
+        return keys[item];
+    }
+
+    /**
+     * Adds the specified item with the specified key.
+     *
+     * @param item the item to add
+     * @param key  the key of the item
+     * @throws IllegalArgumentException if the item is already in this heap
+     */
+    public void insert(int item, double key) {
+        if (position[item] != -1)
+            throw new IllegalArgumentException("Item " + item + " is already in the heap");
+        keys[item] = key;
+        heap[size] = item;
+        position[item] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Lowers the key of the specified item, which must be in this heap.
+     *
+     * @param item the item whose key is to be lowered
+     * @param key  the new key, which must not be greater than the current one
+     * @throws IllegalArgumentException if the new key is greater than the
+     *                                  current one
+     */
+    public void decreaseKey(int item, double key) {
+        if (key > keys[item])
+            throw new IllegalArgumentException("New key " + key + " is greater than current key " + keys[item]);
+        keys[item] = key;
+        siftUp(position[item]);
+    }
+
+    /**
+     * Sets the key of the specified item, which must be in this heap, whether it
+     * goes up or down.
+     *
+     * @param item the item whose key is to be changed
+     * @param key  the new key
+     */
+    public void changeKey(int item, double key) {
+        double old = keys[item];
+        keys[item] = key;
+        if (key < old)
+            siftUp(position[item]);
+        else
+            siftDown(position[item]);
+    }
+
+    /**
+     * Inserts the specified item if it is not in this heap, or lowers its key if
+     * it is and the specified key is smaller.
+     *
+     * @param item the item to add or update
+     * @param key  the candidate key
+     * @return {@code true} if this heap changed as a result of the call.
+     */
+    public boolean offer(int item, double key) {
+        if (position[item] == -1) {
+            insert(item, key);
+            return true;
+        }
+        if (key < keys[item]) {
+            decreaseKey(item, key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns, but does not remove, the item with the smallest key.
+     *
+     * @return the item with the smallest key.
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the item with the smallest key.
+     *
+     * @return the item with the smallest key.
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int poll() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        int min = heap[0];
+        size--;
+        position[min] = -1;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes all of the items from this heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            position[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int item = heap[index];
+        double key = keys[item];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key)
+                break;
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = item;
+        position[item] = index;
+    }
+
+    private void siftDown(int index) {
+        int item = heap[index];
+        double key = keys[item];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                child++;
+            if (key <= keys[heap[child]])
+                break;
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = item;
+        position[item] = index;
+    }
+}
@@ -0,0 +1,671 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An insertion-ordered hash set with the same {@code Deque} contract as
+ * {@link HashSet}, stored without any per-element objects.
+ *
+ * <p>
+ * Each element gets an entry number, and the element, its hash code and the
+ * entries before and after it in iteration order are kept in parallel arrays
+ * indexed by that number. The table itself is an {@code int[]} of entry
+ * numbers searched by linear probing, so a lookup walks a few adjacent ints and
+ * compares cached hash codes before it ever calls {@code equals}. Removal
+ * shifts the rest of the probe run back instead of leaving tombstones, and
+ * frees the entry for reuse.
+ */
+@SuppressWarnings("unchecked")
+public class OpenHashSet<T> implements Deque<T>, Cloneable {
+    /**
+     * The entry number + 1 of the element in each slot, or 0 for an empty slot.
+     */
+    private int[] table;
+    /**
+     * The element of each entry, or {@code null} for a free entry.
+     */
+    private Object[] items;
+    /**
+     * The hash code of the element of each entry.
+     */
+    private int[] hashes;
+    /**
+     * The entry before each entry in iteration order, or -1.
+     */
+    private int[] before;
+    /**
+     * The entry after each entry in iteration order, or -1. Free entries are
+     * chained through this array too.
+     */
+    private int[] after;
+    /**
+     * The number of items in this set.
+     */
+    protected int size;
+    /**
+     * The number of entries ever handed out, all of them below this number.
+     */
+    private int used;
+    private int head, tail, free;
+    /**
+     * Incremented on every change, so iterators can notice changes they did not
+     * make.
+     */
+    private int modCount;
+
+    /**
+     * Creates an empty set.
+     */
+    public OpenHashSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty set with room for the specified number of elements before
+     * it has to grow.
+     *
+     * @param capacity the initial capacity
+     */
+    public OpenHashSet(int capacity) {
+        capacity = Math.max(capacity, 4);
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        items = new Object[capacity];
+        hashes = new int[capacity];
+        before = new int[capacity];
+        after = new int[capacity];
+        size = used = 0;
+        head = tail = free = -1;
+    }
+
+    /**
+     * Returns the number of items in this set.
+     *
+     * @return the number of items in this set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this set contains no elements.
+     *
+     * @return {@code true} if this set contains no elements.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    //Fibonacci hashing, so hash codes that differ only in their high bits still land apart
+    private int home(int hash) {
+        return (hash * 0x9E3779B9) >>> (Integer.numberOfLeadingZeros(table.length) + 1);
+    }
+
+    //The slot holding an element equal to o, or -1 if there is none
+    private int slotOf(Object o) {
+        if (o == null)
+            return -1;
+        int hash = o.hashCode();
+        int mask = table.length - 1;
+        for (int slot = home(hash);; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (entry < 0)
+                return -1;
+            if (hashes[entry] == hash && (items[entry] == o || items[entry].equals(o)))
+                return slot;
+        }
+    }
+
+    //Puts entry into the first empty slot of its probe run
+    private void place(int entry) {
+        int mask = table.length - 1;
+        int slot = home(hashes[entry]);
+        while (table[slot] != 0)
+            slot = (slot + 1) & mask;
+        table[slot] = entry + 1;
+    }
+
+    //Adds item as a new entry at the front or back of the iteration order, unless it is already here
+    private boolean insert(T item, boolean first) {
+        if (item == null || slotOf(item) != -1)
+            return false;
+        int entry;
+        if (free != -1) {
+            entry = free;
+            free = after[free];
+        } else {
+            if (used == items.length) {
+                int capacity = items.length * 2;
+                items = Arrays.copyOf(items, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                before = Arrays.copyOf(before, capacity);
+                after = Arrays.copyOf(after, capacity);
+            }
+            entry = used++;
+        }
+        items[entry] = item;
+        hashes[entry] = item.hashCode();
+        if (first) {
+            before[entry] = -1;
+            after[entry] = head;
+            if (head != -1)
+                before[head] = entry;
+            head = entry;
+            if (tail == -1)
+                tail = entry;
+        } else {
+            after[entry] = -1;
+            before[entry] = tail;
+            if (tail != -1)
+                after[tail] = entry;
+            tail = entry;
+            if (head == -1)
+                head = entry;
+        }
+        size++;
+        modCount++;
+        //keep the table at most half full so probe runs stay short
+        if (size * 2 > table.length)
+            rehash(table.length * 2);
+        else
+            place(entry);
+        return true;
+    }
+
+    private void rehash(int length) {
+        table = new int[length];
+        for (int entry = head; entry != -1; entry = after[entry])
+            place(entry);
+    }
+
+    //Empties slot, shifting back any later element of the run that would otherwise be cut off from its home
+    private void removeSlot(int slot) {
+        int entry = table[slot] - 1;
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = home(hashes[table[next] - 1]);
+            //can the element at next move back to hole without passing its home?
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+
+        if (before[entry] != -1)
+            after[before[entry]] = after[entry];
+        else
+            head = after[entry];
+        if (after[entry] != -1)
+            before[after[entry]] = before[entry];
+        else
+            tail = before[entry];
+        items[entry] = null;
+        after[entry] = free;
+        free = entry;
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Returns the item in this set that is equal to the specified item, or
+     * {@code null} if no such item exists.
+     *
+     * @param item the item to be found in the set
+     * @return the item in this set that is equal to the specified item, or
+     *         {@code null} if no such item exists
+     */
+    public T get(T item) {
+        int slot = slotOf(item);
+        return slot == -1 ? null : (T) items[table[slot] - 1];
+    }
+
+    /**
+     * Returns {@code true} if this set contains the specified element.
+     *
+     * @param o element whose presence in this set is to be tested
+     * @return {@code true} if this set contains the specified element.
+     */
+    public boolean contains(Object o) {
+        return slotOf(o) != -1;
+    }
+
+    /**
+     * Returns {@code true} if this set contains all of the elements in the
+     * specified collection.
+     *
+     * @param items collection to be checked for containment in this set
+     * @return {@code true} if this set contains all of the elements in the
+     *         specified collection.
+     */
+    public boolean containsAll(Collection<?> items) {
+        for (Object item : items)
+            if (!contains(item))
+                return false;
+        return true;
+    }
+
+    /**
+     * Adds the specified element to the end of this set if it is not already
+     * contained.
+     *
+     * @param item the item to add
+     * @return {@code true} if item was added to the set.
+     */
+    public boolean add(T item) {
+        return insert(item, false);
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to the end of this
+     * set, in the order they are returned by the collection's iterator.
+     *
+     * @param c the elements to be inserted into this set
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        boolean added = false;
+        for (T item : c)
+            added |= add(item);
+        return added;
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param o element to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element.
+     */
+    @Override
+    public boolean remove(Object o) {
+        int slot = slotOf(o);
+        if (slot == -1)
+            return false;
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Removes all of this set's elements that are also contained in the
+     * specified collection.
+     *
+     * @param c collection containing elements to be removed from this set
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean removed = false;
+        for (Object item : c)
+            removed |= remove(item);
+        return removed;
+    }
+
+    /**
+     * Retains only the elements in this set that are contained in the specified
+     * collection.
+     *
+     * @param c collection containing elements to be retained in this set
+     * @return {@code true} if this set changed as a result of the call.
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean removed = false;
+        for (Iterator<T> iter = iterator(); iter.hasNext();) {
+            if (!c.contains(iter.next())) {
+                iter.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all of the elements from this set.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(items, 0, used, null);
+        size = used = 0;
+        head = tail = free = -1;
+        modCount++;
+    }
+
+    /**
+     * Retrieves, but does not remove, the first element of this set.
+     *
+     * @return the first element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T getFirst() {
+        return head == -1 ? null : (T) items[head];
+    }
+
+    /**
+     * Retrieves, but does not remove, the last element of this set.
+     *
+     * @return the last element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T getLast() {
+        return tail == -1 ? null : (T) items[tail];
+    }
+
+    /**
+     * Retrieves and removes the first element of this set.
+     *
+     * @return the first element of this set.
+     * @throws NoSuchElementException if this set is empty
+     */
+    @Override
+    public T removeFirst() {
+        if (head == -1)
+            throw new NoSuchElementException();
+        T item = (T) items[head];
+        remove(item);
+        return item;
+    }
+
+    /**
+     * Retrieves and removes the last element of this set.
+     *
+     * @return the last element of this set.
+     * @throws NoSuchElementException if this set is empty
+     */
+    @Override
+    public T removeLast() {
+        if (tail == -1)
+            throw new NoSuchElementException();
+        T item = (T) items[tail];
+        remove(item);
+        return item;
+    }
+
+    /**
+     * Inserts the specified element at the front of this set if it is not already
+     * contained.
+     */
+    @Override
+    public void addFirst(T item) {
+        insert(item, true);
+    }
+
+    /**
+     * Inserts the specified element at the end of this set if it is not already
+     * contained.
+     */
+    @Override
+    public void addLast(T item) {
+        insert(item, false);
+    }
+
+    /**
+     * Inserts the specified element at the front of this set if it is not already
+     * contained.
+     *
+     * @param item the element to add
+     * @return {@code true} if the element was added to this set, else
+     *         {@code false}.
+     */
+    @Override
+    public boolean offerFirst(T item) {
+        return insert(item, true);
+    }
+
+    /**
+     * Equivalent to {@link #add(Object)}.
+     *
+     * @param item the element to add
+     * @return {@code true} if the element was added to this set, else
+     *         {@code false}.
+     */
+    @Override
+    public boolean offerLast(T item) {
+        return add(item);
+    }
+
+    /**
+     * Retrieves and removes the first element of this set.
+     *
+     * @return the first element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T pollFirst() {
+        return head == -1 ? null : removeFirst();
+    }
+
+    /**
+     * Retrieves and removes the last element of this set.
+     *
+     * @return the last element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T pollLast() {
+        return tail == -1 ? null : removeLast();
+    }
+
+    /**
+     * Equivalent to {@link #getFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T peekFirst() {
+        return getFirst();
+    }
+
+    /**
+     * Equivalent to {@link #getLast()}.
+     *
+     * @return the last element of this set.
+     */
+    @Override
+    public T peekLast() {
+        return getLast();
+    }
+
+    /**
+     * Equivalent to {@link #remove(Object)}.
+     *
+     * @param o element to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element.
+     */
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return remove(o);
+    }
+
+    /**
+     * Equivalent to {@link #remove(Object)}.
+     *
+     * @param o element to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element.
+     */
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        return remove(o);
+    }
+
+    /**
+     * Equivalent to {@link #add(Object)}.
+     *
+     * @param item the element to add
+     * @return {@code true} if the element was added to this set, else
+     *         {@code false}.
+     */
+    @Override
+    public boolean offer(T item) {
+        return add(item);
+    }
+
+    /**
+     * Equivalent to {@link #removeFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    /**
+     * Equivalent to {@link #pollFirst()}.
+     *
+     * @return the first element of this set, or {@code null} if it is empty.
+     */
+    @Override
+    public T poll() {
+        return pollFirst();
+    }
+
+    /**
+     * Equivalent to {@link #getFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    /**
+     * Equivalent to {@link #getFirst()}.
+     *
+     * @return the first element of this set.
+     */
+    @Override
+    public T peek() {
+        return getFirst();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void push(T item) {
+        addFirst(item);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T pop() {
+        return removeFirst();
+    }
+
+    private class Walker implements Iterator<T> {
+        private final boolean descending;
+        private int next, last = -1, expected = modCount;
+
+        Walker(boolean descending) {
+            this.descending = descending;
+            next = descending ? tail : head;
+        }
+
+        public boolean hasNext() {
+            return next != -1;
+        }
+
+        public T next() {
+            if (expected != modCount)
+                throw new ConcurrentModificationException();
+            if (next == -1)
+                throw new NoSuchElementException();
+            last = next;
+            next = descending ? before[next] : after[next];
+            return (T) items[last];
+        }
+
+        public void remove() {
+            if (last == -1)
+                throw new IllegalStateException();
+            if (expected != modCount)
+                throw new ConcurrentModificationException();
+            OpenHashSet.this.remove(items[last]);
+            last = -1;
+            expected = modCount;
+        }
+    }
+
+    /**
+     * Returns an iterator over this set in insertion order.
+     *
+     * @return an iterator over this set in insertion order.
+     */
+    public Iterator<T> iterator() {
+        return new Walker(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new Walker(true);
+    }
+
+    /**
+     * Returns an array containing all of the elements in this set in order.
+     *
+     * @return an array containing all of the elements in this set in order.
+     */
+    @Override
+    public Object[] toArray() {
+        return toArray(new Object[size]);
+    }
+
+    /**
+     * Returns an array containing all of the elements in this set in order; the
+     * runtime type of the returned array is that of the specified array.
+     *
+     * @param a the array into which the elements are to be stored, if it is big
+     *          enough; otherwise, a new array of the same runtime type is
+     *          allocated for this purpose.
+     * @return an array containing all of the elements in this set in order.
+     */
+    @Override
+    public <A> A[] toArray(A[] a) {
+        if (a.length < size)
+            a = (A[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+        int index = 0;
+        for (int entry = head; entry != -1; entry = after[entry])
+            a[index++] = (A) items[entry];
+        if (index < a.length)
+            a[index] = null;
+        return a;
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return a string representation of the object.
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int entry = head; entry != -1; entry = after[entry]) {
+            if (entry != head)
+                sb.append(", ");
+            sb.append(items[entry]);
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OpenHashSet<T> clone() {
+        OpenHashSet<T> set = new OpenHashSet<T>(Math.max(size, 4));
+        for (int entry = head; entry != -1; entry = after[entry])
+            set.add((T) items[entry]);
+        return set;
+    }
+}
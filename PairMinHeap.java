@@ -0,0 +1,153 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable binary min-heap of {@code (double key, int item)} pairs, stored in
+ * two parallel primitive arrays.
+ *
+ * <p>
+ * Unlike {@link IndexedMinHeap} the same item may be pushed more than once with
+ * different keys. That suits lazy deletion: push a new entry whenever a key
+ * improves, and skip the outdated entries when they are polled.
+ */
+public class PairMinHeap {
+    /**
+     * The keys of the entries in heap order.
+     */
+    private double[] keys;
+    /**
+     * The items of the entries in heap order.
+     */
+    private int[] items;
+    /**
+     * The number of entries in this heap.
+     */
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     */
+    public PairMinHeap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty heap with room for the specified number of entries before
+     * it has to grow.
+     *
+     * @param capacity the initial capacity
+     */
+    public PairMinHeap(int capacity) {
+        keys = new double[Math.max(capacity, 1)];
+        items = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * Returns the number of entries in this heap.
+     *
+     * @return the number of entries in this heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this heap contains no entries.
+     *
+     * @return {@code true} if this heap contains no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an entry with the specified item and key.
+     *
+     * @param item the item of the entry
+     * @param key  the key of the entry
+     */
+    public void push(int item, double key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            items = Arrays.copyOf(items, size * 2);
+        }
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[parent] <= key)
+                break;
+            keys[index] = keys[parent];
+            items[index] = items[parent];
+            index = parent;
+        }
+        keys[index] = key;
+        items[index] = item;
+    }
+
+    /**
+     * Returns the smallest key in this heap.
+     *
+     * @return the smallest key in this heap.
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public double peekKey() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return keys[0];
+    }
+
+    /**
+     * Returns the item of the entry with the smallest key.
+     *
+     * @return the item of the entry with the smallest key.
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return items[0];
+    }
+
+    /**
+     * Removes the entry with the smallest key and returns its item.
+     *
+     * @return the item of the entry with the smallest key.
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int poll() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        int min = items[0];
+        size--;
+        if (size > 0) {
+            double key = keys[size];
+            int item = items[size];
+            int index = 0;
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child])
+                    child++;
+                if (key <= keys[child])
+                    break;
+                keys[index] = keys[child];
+                items[index] = items[child];
+                index = child;
+            }
+            keys[index] = key;
+            items[index] = item;
+        }
+        return min;
+    }
+
+    /**
+     * Removes all of the entries from this heap.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,141 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exact TSP by searching the Ham Cycles on a fork-join pool.
+ *
+ * <p>
+ * The search tree below the source is split into one task per path of length splitDepth, and each task walks its
+ * own subtree depth-first. All of the tasks share the cost of the best cycle found so far through an AtomicLong
+ * holding its double bits, and a path is dropped as soon as its cost reaches that bound, so a good cycle found by
+ * one worker prunes the subtrees of all the others. The vertices on the path are kept as a bitmask over vertex ids,
+ * so checking a neighbor is O(1) rather than a scan of the path. Assumes the edge weights are not negative.
+ */
+public class ParallelTSP{
+
+    /**
+     * How many levels below the source are split into separate tasks.
+     */
+    public static int splitDepth = 2;
+
+    //Best cycle found in one subtree
+    private static class Result<V, E>{
+        double cost = Double.POSITIVE_INFINITY;
+        List<Graph.Vertex<V, E>> path;
+    }
+
+    private static class SearchTask<V, E> extends RecursiveTask<Result<V, E>>{
+        private static final long serialVersionUID = 1L;
+
+        private final int size;
+        private final AtomicLong bestBits;
+        private final List<Graph.Vertex<V, E>> curPath;
+        //bit id() of the word id() / 64 is set for each vertex on curPath
+        private final long[] visited;
+        private final double cost;
+
+        SearchTask(int size, AtomicLong bestBits, List<Graph.Vertex<V, E>> curPath, long[] visited, double cost){
+            this.size = size;
+            this.bestBits = bestBits;
+            this.curPath = curPath;
+            this.visited = visited;
+            this.cost = cost;
+        }
+
+        @Override
+        protected Result<V, E> compute(){
+            Result<V, E> result = new Result<V, E>();
+            if(curPath.size() > splitDepth || curPath.size() == size){
+                search(curPath, visited, cost, result);
+                return result;
+            }
+
+            //one subtask per unvisited neighbor of the end of the path
+            Graph.Vertex<V, E> last = curPath.get(curPath.size()-1);
+            List<SearchTask<V, E>> subtasks = new ArrayList<SearchTask<V, E>>();
+            for(Graph.Edge<V, E> edge : last.edgesOut()){
+                Graph.Vertex<V, E> neighbor = edge.other(last);
+                int id = neighbor.id();
+                if((visited[id >>> 6] & (1L << id)) != 0) continue;
+                List<Graph.Vertex<V, E>> nextPath = new ArrayList<Graph.Vertex<V, E>>(curPath);
+                nextPath.add(neighbor);
+                long[] nextVisited = visited.clone();
+                nextVisited[id >>> 6] |= 1L << id;
+                subtasks.add(new SearchTask<V, E>(size, bestBits, nextPath, nextVisited, cost + ((Graph.WeightedEdge<V, E>) edge).weight));
+            }
+            for(SearchTask<V, E> subtask : invokeAll(subtasks)){
+                Result<V, E> subResult = subtask.join();
+                if(subResult.cost < result.cost) result = subResult;
+            }
+            return result;
+        }
+
+        //Sequential depth-first search of the subtree below curPath
+        private void search(List<Graph.Vertex<V, E>> curPath, long[] visited, double cost, Result<V, E> result){
+            if(cost >= Double.longBitsToDouble(bestBits.get())) return;
+            Graph.Vertex<V, E> last = curPath.get(curPath.size()-1);
+            if(curPath.size() == size){
+                Graph.Edge<V, E> closing = last.getEdgeTo(curPath.get(0));
+                if(closing == null) return;
+                double total = cost + ((Graph.WeightedEdge<V, E>) closing).weight;
+                if(total < result.cost && offer(total)){
+                    result.cost = total;
+                    result.path = new ArrayList<Graph.Vertex<V, E>>(curPath);
+                }
+                return;
+            }
+            for(Graph.Edge<V, E> edge : last.edgesOut()){
+                Graph.Vertex<V, E> neighbor = edge.other(last);
+                int id = neighbor.id();
+                long bit = 1L << id;
+                if((visited[id >>> 6] & bit) != 0) continue;
+                visited[id >>> 6] |= bit;
+                curPath.add(neighbor);
+                search(curPath, visited, cost + ((Graph.WeightedEdge<V, E>) edge).weight, result);
+                curPath.remove(curPath.size()-1);
+                visited[id >>> 6] &= ~bit;
+            }
+        }
+
+        //Lowers the shared bound to cost, returning false if another worker already has something cheaper
+        private boolean offer(double cost){
+            while(true){
+                long bits = bestBits.get();
+                if(cost >= Double.longBitsToDouble(bits)) return false;
+                if(bestBits.compareAndSet(bits, Double.doubleToLongBits(cost))) return true;
+            }
+        }
+    }
+
+    /**
+     * @param <V>
+     * @param <E>
+     * @param g
+     * @param source
+     * @param pool the pool to run the search on
+     * @return the smallest/cheapest Ham Cycle in the form of an ordered list of edges, or null if there is none
+     */
+    public static <V, E> List<Graph.Edge<V, E>> minTSP(Graph<V, E> g, Graph.Vertex<V, E> source, ForkJoinPool pool){
+        int size = g.vertices.size();
+        AtomicLong bestBits = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        List<Graph.Vertex<V, E>> curPath = new ArrayList<Graph.Vertex<V, E>>();
+        curPath.add(source);
+        long[] visited = new long[(size + 63) >>> 6];
+        visited[source.id() >>> 6] |= 1L << source.id();
+        Result<V, E> result = pool.invoke(new SearchTask<V, E>(size, bestBits, curPath, visited, 0.0));
+        if(result.path == null) return null;
+
+        List<Graph.Edge<V, E>> cycle = new ArrayList<Graph.Edge<V, E>>(size);
+        for(int i = 0; i < size; i++){
+            cycle.add(result.path.get(i).getEdgeTo(result.path.get((i+1) % size)));
+        }
+        return cycle;
+    }
+}
@@ -0,0 +1,41 @@
+/* Katie Bernard
+ * 12/12/22
+ */
+
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs a body on every index in [from, to) on a fork-join pool, splitting the range in half until a piece has at
+ * most grain indices, which are then run in order by one task. Shared by the parallel loops of
+ * AllPairsShortestPaths and BoruvkaMst.
+ */
+class RangeTask extends RecursiveAction{
+    private static final long serialVersionUID = 1L;
+
+    private final int from, to, grain;
+    private final IntConsumer body;
+
+    /**
+     * @param from the first index
+     * @param to one past the last index
+     * @param grain the most indices one task runs by itself, at least 1
+     * @param body what to run on each index
+     */
+    RangeTask(int from, int to, int grain, IntConsumer body){
+        this.from = from;
+        this.to = to;
+        this.grain = Math.max(grain, 1);
+        this.body = body;
+    }
+
+    @Override
+    protected void compute(){
+        if(to - from > grain){
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+            return;
+        }
+        for(int i = from; i < to; i++) body.accept(i);
+    }
+}